@@ -1,5 +1,14 @@
-import { useEffect, useState } from "react";
-import { MapContainer, Marker, Popup, TileLayer, useMap } from "react-leaflet";
+import { useCallback, useEffect, useMemo, useState } from "react";
+import {
+  CircleMarker,
+  MapContainer,
+  Marker,
+  Popup,
+  TileLayer,
+  Tooltip,
+  useMap,
+  useMapEvents,
+} from "react-leaflet";
 import L from "leaflet";
 import "leaflet/dist/leaflet.css";
 import markerIcon2x from "leaflet/dist/images/marker-icon-2x.png";
@@ -18,6 +27,7 @@ L.Icon.Default.mergeOptions({
 });
 
 const DEFAULT_CENTER = [42.36, -71.05];
+const DEFAULT_ZOOM = 12;
 
 /* -------------------- Helpers -------------------- */
 
@@ -38,6 +48,38 @@ const getStopPosition = (stop, fallback) => {
   return [lat, lng];
 };
 
+const clamp = (value, limit) => Math.max(-limit, Math.min(limit, value));
+
+// Leaflet reports longitudes past ±180 on repeated world copies; bring them back into range.
+const wrapLongitude = (lng) => ((((lng + 180) % 360) + 360) % 360) - 180;
+
+const toViewport = (map) => {
+  const bounds = map.getBounds();
+  const west = bounds.getWest();
+  const east = bounds.getEast();
+  const spansWorld = east - west >= 360;
+
+  // A box crossing the antimeridian comes out with minLon > maxLon, which the API accepts.
+  return {
+    minLat: clamp(bounds.getSouth(), 90),
+    minLon: spansWorld ? -180 : wrapLongitude(west),
+    maxLat: clamp(bounds.getNorth(), 90),
+    maxLon: spansWorld ? 180 : wrapLongitude(east),
+    zoom: Math.round(map.getZoom()),
+  };
+};
+
+const sameViewport = (a, b) =>
+  a != null &&
+  b != null &&
+  a.minLat === b.minLat &&
+  a.minLon === b.minLon &&
+  a.maxLat === b.maxLat &&
+  a.maxLon === b.maxLon &&
+  a.zoom === b.zoom;
+
+const clusterRadius = (count) => Math.min(30, 8 + Math.sqrt(count) * 2);
+
 function MapFlyTo({ location }) {
   const map = useMap();
 
@@ -49,10 +91,24 @@ function MapFlyTo({ location }) {
   return null;
 }
 
+function ViewportWatcher({ onChange }) {
+  const map = useMapEvents({
+    moveend: () => onChange(toViewport(map)),
+  });
+
+  useEffect(() => {
+    onChange(toViewport(map));
+  }, [map, onChange]);
+
+  return null;
+}
+
 /* -------------------- App -------------------- */
 
 function App() {
+  const [viewport, setViewport] = useState(null);
   const [vehicles, setVehicles] = useState([]);
+  const [clusters, setClusters] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
 
@@ -62,9 +118,15 @@ function App() {
   const [etaError, setEtaError] = useState("");
   const [etaLoading, setEtaLoading] = useState(false);
 
+  // A moveend without an actual move (e.g. setView to the same spot) must not refetch.
+  const handleViewportChange = useCallback((next) => {
+    setViewport((current) => (sameViewport(current, next) ? current : next));
+  }, []);
+
   /* -------------------- Fetch Vehicles -------------------- */
 
   useEffect(() => {
+    if (!viewport) return;
     const controller = new AbortController();
 
     const fetchVehicles = async () => {
@@ -72,7 +134,14 @@ function App() {
         setLoading(true);
         setError("");
 
-        const res = await fetch(`${API_BASE}/api/v1/vehicles`, {
+        const params = new URLSearchParams({
+          minLat: viewport.minLat,
+          minLon: viewport.minLon,
+          maxLat: viewport.maxLat,
+          maxLon: viewport.maxLon,
+          zoom: viewport.zoom,
+        });
+        const res = await fetch(`${API_BASE}/api/v1/vehicles?${params}`, {
           signal: controller.signal,
         });
 
@@ -81,7 +150,8 @@ function App() {
         }
 
         const data = await res.json();
-        setVehicles(Array.isArray(data) ? data : []);
+        setVehicles(Array.isArray(data?.vehicles) ? data.vehicles : []);
+        setClusters(Array.isArray(data?.clusters) ? data.clusters : []);
       } catch (err) {
         if (err.name !== "AbortError") {
           setError("Failed to fetch vehicles");
@@ -93,7 +163,7 @@ function App() {
 
     fetchVehicles();
     return () => controller.abort();
-  }, []);
+  }, [viewport]);
 
   /* -------------------- Fetch ETA -------------------- */
 
@@ -148,8 +218,11 @@ function App() {
     }))
     .filter((v) => v.position);
 
-  const mapCenter = vehicleMarkers[0]?.position ?? DEFAULT_CENTER;
-  const stopLocation = getStopPosition(selectedStop, mapCenter);
+  // Memoised so MapFlyTo only re-centres when a different stop is selected.
+  const stopLocation = useMemo(
+    () => getStopPosition(selectedStop, DEFAULT_CENTER),
+    [selectedStop]
+  );
 
   /* -------------------- UI -------------------- */
 
@@ -158,7 +231,8 @@ function App() {
       <section style={{ height: "60%" }}>
         <MapContainer
           center={DEFAULT_CENTER}
-          zoom={12}
+          zoom={DEFAULT_ZOOM}
+          worldCopyJump
           style={{ height: "100%", width: "100%" }}
         >
           <TileLayer
@@ -167,6 +241,17 @@ function App() {
           />
 
           <MapFlyTo location={stopLocation} />
+          <ViewportWatcher onChange={handleViewportChange} />
+
+          {clusters.map((cluster) => (
+            <CircleMarker
+              key={`${cluster.latitude},${cluster.longitude}`}
+              center={[cluster.latitude, cluster.longitude]}
+              radius={clusterRadius(cluster.count)}
+            >
+              <Tooltip>{cluster.count} vehicles</Tooltip>
+            </CircleMarker>
+          ))}
 
           {vehicleMarkers.map(({ vehicle, position }, i) => (
             <Marker key={vehicle.busId ?? i} position={position}>
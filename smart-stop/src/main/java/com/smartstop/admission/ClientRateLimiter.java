@@ -0,0 +1,138 @@
+package com.smartstop.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token bucket implemented as GCRA: each client is a single {@link AtomicLong}
+ * holding its theoretical arrival time, so admitting a request is one lookup and one CAS.
+ * Once {@code max-tracked-clients} buckets exist, idle buckets are purged on the spot; if the
+ * table is still full, new clients are refused until buckets free up. Existing clients keep
+ * their own buckets either way, so nobody shares a bucket that another client could drain.
+ */
+@Component
+public class ClientRateLimiter {
+
+    // Bounds how often a full table triggers an inline purge, which walks every bucket.
+    private static final long FULL_TABLE_PURGE_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxTrackedClients;
+
+    private final Map<String, AtomicLong> theoreticalArrivalByClient = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder refusedTableFull = new LongAdder();
+    private final AtomicLong lastFullTablePurgeNanos;
+
+    public ClientRateLimiter(
+            @Value("${smartstop.admission.client-requests-per-second:10}") double requestsPerSecond,
+            @Value("${smartstop.admission.client-burst:20}") int burst,
+            @Value("${smartstop.admission.max-tracked-clients:100000}") int maxTrackedClients
+    ) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.maxTrackedClients = maxTrackedClients;
+        this.lastFullTablePurgeNanos = new AtomicLong(System.nanoTime() - FULL_TABLE_PURGE_INTERVAL_NANOS);
+    }
+
+    /**
+     * Key for a client without an allow-listed API key. IPv6 clients are keyed by their /64 prefix,
+     * since a single host can usually pick any address in it.
+     */
+    public static String clientKeyForAddress(String remoteAddress) {
+        InetAddress address;
+        try {
+            // Servlet containers report a numeric address, so this never triggers a DNS lookup.
+            address = InetAddress.getByName(remoteAddress);
+        } catch (UnknownHostException e) {
+            return "ip:" + remoteAddress;
+        }
+        if (address instanceof Inet6Address) {
+            byte[] prefix = new byte[8];
+            System.arraycopy(address.getAddress(), 0, prefix, 0, prefix.length);
+            return "ip6:" + HexFormat.of().formatHex(prefix) + "/64";
+        }
+        return "ip:" + address.getHostAddress();
+    }
+
+    /**
+     * Returns 0 when the request is admitted, otherwise the nanoseconds until the client may retry.
+     */
+    public long tryAcquire(String clientKey) {
+        return tryAcquire(clientKey, System.nanoTime());
+    }
+
+    long tryAcquire(String clientKey, long now) {
+        AtomicLong theoreticalArrival = bucketFor(clientKey, now);
+        if (theoreticalArrival == null) {
+            refusedTableFull.increment();
+            return emissionIntervalNanos;
+        }
+
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = (current - now > 0 ? current : now) + emissionIntervalNanos;
+            long excessNanos = next - now - burstToleranceNanos;
+            if (excessNanos > 0) {
+                rejected.increment();
+                return excessNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A bucket whose arrival time has passed is full again and can be recreated on demand.
+    @Scheduled(fixedDelayString = "${smartstop.admission.idle-client-purge-interval-ms:60000}")
+    public void purgeIdleClients() {
+        purgeIdleClients(System.nanoTime());
+    }
+
+    void purgeIdleClients(long now) {
+        theoreticalArrivalByClient.values().removeIf(theoreticalArrival -> theoreticalArrival.get() - now <= 0);
+    }
+
+    public int getTrackedClientCount() {
+        return theoreticalArrivalByClient.size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getRefusedTableFullCount() {
+        return refusedTableFull.sum();
+    }
+
+    private AtomicLong bucketFor(String clientKey, long now) {
+        AtomicLong theoreticalArrival = theoreticalArrivalByClient.get(clientKey);
+        if (theoreticalArrival != null) {
+            return theoreticalArrival;
+        }
+
+        if (theoreticalArrivalByClient.size() >= maxTrackedClients) {
+            long lastPurge = lastFullTablePurgeNanos.get();
+            if (now - lastPurge >= FULL_TABLE_PURGE_INTERVAL_NANOS
+                    && lastFullTablePurgeNanos.compareAndSet(lastPurge, now)) {
+                purgeIdleClients(now);
+            }
+            if (theoreticalArrivalByClient.size() >= maxTrackedClients) {
+                // Refusing is the only option that neither grows the map nor lets the client go unlimited.
+                return null;
+            }
+        }
+        return theoreticalArrivalByClient.computeIfAbsent(clientKey, k -> new AtomicLong(now));
+    }
+}
@@ -0,0 +1,95 @@
+package com.smartstop.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps requests in flight across all clients. Low-priority requests must also fit within their
+ * own in-flight cap, which drops to a single slot while the latency average is above target,
+ * so they are shed well before high-priority requests are.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    private final int maxConcurrent;
+    private final int lowPriorityMaxConcurrent;
+    private final long latencyTargetMicros;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger lowPriorityInFlight = new AtomicInteger();
+    private final LongAdder shedLowPriority = new LongAdder();
+    private final LongAdder shedHighPriority = new LongAdder();
+
+    // Updated without synchronisation; a lost sample only nudges the average.
+    private volatile long latencyAverageMicros;
+
+    public ConcurrencyLimiter(
+            @Value("${smartstop.admission.max-concurrent:150}") int maxConcurrent,
+            @Value("${smartstop.admission.low-priority-max-concurrent:50}") int lowPriorityMaxConcurrent,
+            @Value("${smartstop.admission.latency-target-ms:500}") long latencyTargetMillis
+    ) {
+        this.maxConcurrent = maxConcurrent;
+        this.lowPriorityMaxConcurrent = lowPriorityMaxConcurrent;
+        this.latencyTargetMicros = latencyTargetMillis * 1_000;
+    }
+
+    public boolean tryAcquire(boolean lowPriority) {
+        if (lowPriority) {
+            // Keep one slot open so low-priority samples still feed the average while it recovers.
+            int lowPriorityLimit = isLatencyAboveTarget() ? 1 : lowPriorityMaxConcurrent;
+            if (lowPriorityInFlight.incrementAndGet() > lowPriorityLimit) {
+                lowPriorityInFlight.decrementAndGet();
+                shedLowPriority.increment();
+                return false;
+            }
+        }
+
+        if (inFlight.incrementAndGet() > maxConcurrent) {
+            inFlight.decrementAndGet();
+            if (lowPriority) {
+                lowPriorityInFlight.decrementAndGet();
+                shedLowPriority.increment();
+            } else {
+                shedHighPriority.increment();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    public void release(boolean lowPriority, long elapsedNanos) {
+        inFlight.decrementAndGet();
+        if (lowPriority) {
+            lowPriorityInFlight.decrementAndGet();
+        }
+        long average = latencyAverageMicros;
+        latencyAverageMicros = average + ((elapsedNanos / 1_000) - average) / 8;
+    }
+
+    public boolean isLatencyAboveTarget() {
+        return latencyAverageMicros > latencyTargetMicros;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getLowPriorityInFlight() {
+        return lowPriorityInFlight.get();
+    }
+
+    public long getLatencyAverageMicros() {
+        return latencyAverageMicros;
+    }
+
+    public long getShedLowPriorityCount() {
+        return shedLowPriority.sum();
+    }
+
+    public long getShedHighPriorityCount() {
+        return shedHighPriority.sum();
+    }
+}
@@ -0,0 +1,124 @@
+package com.smartstop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartstop.admission.ClientRateLimiter;
+import com.smartstop.admission.ConcurrencyLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the per-client rate limit and the global concurrency limit to API requests,
+ * answering rejected requests with 429 and a Retry-After header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final long OVERLOAD_RETRY_AFTER_SECONDS = 1;
+    private static final List<String> VIEWPORT_PARAMS = List.of("minLat", "minLon", "maxLat", "maxLon", "zoom");
+
+    private final ClientRateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final ObjectMapper objectMapper;
+    private final Set<String> apiKeys;
+
+    public AdmissionControlFilter(ClientRateLimiter rateLimiter,
+                                  ConcurrencyLimiter concurrencyLimiter,
+                                  ObjectMapper objectMapper,
+                                  @Value("${smartstop.admission.api-keys:}") List<String> apiKeys) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.objectMapper = objectMapper;
+        this.apiKeys = Set.copyOf(apiKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith("/api/")
+                || uri.startsWith("/api/v1/health")
+                || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(clientKey(request));
+        if (waitNanos > 0) {
+            reject(request, response, "Rate limit exceeded", Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L));
+            return;
+        }
+
+        boolean lowPriority = isLowPriority(request);
+        if (!concurrencyLimiter.tryAcquire(lowPriority)) {
+            reject(request, response, "Server is busy", OVERLOAD_RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release(lowPriority, System.nanoTime() - startNanos);
+        }
+    }
+
+    // Unknown keys are ignored so a client cannot dodge its limit by rotating the header.
+    String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return ClientRateLimiter.clientKeyForAddress(request.getRemoteAddr());
+    }
+
+    // Full vehicle dumps are the most expensive response and the first to go under load.
+    // Mirrors the params of the viewport @GetMapping in StopController: only a request
+    // carrying all five is served as a viewport query.
+    boolean isLowPriority(HttpServletRequest request) {
+        if (!"/api/v1/vehicles".equals(request.getRequestURI())) {
+            return false;
+        }
+        for (String param : VIEWPORT_PARAMS) {
+            if (request.getParameter(param) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletRequest request,
+                        HttpServletResponse response,
+                        String error,
+                        long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "error", error,
+                "status", HttpStatus.TOO_MANY_REQUESTS.value(),
+                "timestamp", LocalDateTime.now(),
+                "path", request.getRequestURI()
+        ));
+    }
+}
@@ -1,14 +1,24 @@
 package com.smartstop.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class HttpClientConfig {
 
+    // Upstream calls run on the refresh scheduler and, on a cold start, under the vehicle load lock,
+    // so a hung MBTA connection must fail instead of blocking them indefinitely.
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(
+            @Value("${smartstop.http.connect-timeout-ms:3000}") int connectTimeoutMillis,
+            @Value("${smartstop.http.read-timeout-ms:10000}") int readTimeoutMillis
+    ) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMillis);
+        requestFactory.setReadTimeout(readTimeoutMillis);
+        return new RestTemplate(requestFactory);
     }
 }
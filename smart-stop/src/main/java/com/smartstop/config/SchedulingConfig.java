@@ -0,0 +1,31 @@
+package com.smartstop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+
+    // Default scheduler for @Scheduled jobs: checkpoints, subscription purges and rate-limiter purges.
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(
+            @Value("${smartstop.scheduling.pool-size:2}") int poolSize
+    ) {
+        return newScheduler(poolSize, "scheduling-");
+    }
+
+    // Upstream polling gets its own thread so a slow MBTA call never delays the housekeeping jobs.
+    @Bean
+    public ThreadPoolTaskScheduler vehicleRefreshScheduler() {
+        return newScheduler(1, "vehicle-refresh-");
+    }
+
+    private static ThreadPoolTaskScheduler newScheduler(int poolSize, String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        return scheduler;
+    }
+}
@@ -0,0 +1,41 @@
+package com.smartstop.config;
+
+import com.smartstop.service.TransitSnapshotService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Flags API responses while vehicle data comes from a restored checkpoint or live refreshes have stopped landing.
+ */
+@Component
+public class SnapshotStalenessFilter extends OncePerRequestFilter {
+
+    static final String STALE_HEADER = "X-Data-Stale";
+
+    private final TransitSnapshotService snapshotService;
+
+    public SnapshotStalenessFilter(TransitSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (snapshotService.isStale()) {
+            response.setHeader(STALE_HEADER, "true");
+        }
+        filterChain.doFilter(request, response);
+    }
+}
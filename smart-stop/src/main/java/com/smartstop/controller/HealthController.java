@@ -1,15 +1,53 @@
 package com.smartstop.controller;
 
+import com.smartstop.admission.ClientRateLimiter;
+import com.smartstop.admission.ConcurrencyLimiter;
+import com.smartstop.service.TransitSnapshotService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1")
 public class HealthController {
 
+    private final TransitSnapshotService snapshotService;
+    private final ClientRateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public HealthController(TransitSnapshotService snapshotService,
+                            ClientRateLimiter rateLimiter,
+                            ConcurrencyLimiter concurrencyLimiter) {
+        this.snapshotService = snapshotService;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
     @GetMapping("/health")
     public String health() {
         return "OK";
     }
+
+    @GetMapping("/health/snapshot")
+    public Map<String, Object> snapshot() {
+        return snapshotService.getStatus();
+    }
+
+    @GetMapping("/health/admission")
+    public Map<String, Object> admission() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("inFlight", concurrencyLimiter.getInFlight());
+        status.put("lowPriorityInFlight", concurrencyLimiter.getLowPriorityInFlight());
+        status.put("latencyAverageMicros", concurrencyLimiter.getLatencyAverageMicros());
+        status.put("latencyAboveTarget", concurrencyLimiter.isLatencyAboveTarget());
+        status.put("trackedClients", rateLimiter.getTrackedClientCount());
+        status.put("refusedClientTableFull", rateLimiter.getRefusedTableFullCount());
+        status.put("rateLimited", rateLimiter.getRejectedCount());
+        status.put("shedLowPriority", concurrencyLimiter.getShedLowPriorityCount());
+        status.put("shedHighPriority", concurrencyLimiter.getShedHighPriorityCount());
+        return status;
+    }
 }
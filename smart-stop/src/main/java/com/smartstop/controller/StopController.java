@@ -4,9 +4,13 @@ import com.smartstop.domain.ArrivalEstimate;
 import com.smartstop.domain.BusLocation;
 import com.smartstop.domain.Stop;
 import com.smartstop.dto.ArrivalResponse;
+import com.smartstop.dto.VehicleViewportResponse;
 import com.smartstop.mapper.ArrivalMapper;
 import com.smartstop.service.ArrivalService;
 import com.smartstop.service.StopService;
+import com.smartstop.service.VehicleViewportService;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -25,13 +29,16 @@ public class StopController {
     private final ArrivalService arrivalService;
     private final ArrivalMapper arrivalMapper;
     private final StopService stopService;
+    private final VehicleViewportService vehicleViewportService;
 
     public StopController(ArrivalService arrivalService,
                           ArrivalMapper arrivalMapper,
-                          StopService stopService) {
+                          StopService stopService,
+                          VehicleViewportService vehicleViewportService) {
         this.arrivalService = arrivalService;
         this.arrivalMapper = arrivalMapper;
         this.stopService = stopService;
+        this.vehicleViewportService = vehicleViewportService;
     }
 
     // 🔹 ETA endpoint
@@ -62,6 +69,18 @@ public class StopController {
         return arrivalService.getAllLiveVehicles();
     }
 
+    // 🔹 Harita görünümündeki araçlar (yoğun bölgelerde kümelenmiş)
+    @GetMapping(value = "/vehicles", params = {"minLat", "minLon", "maxLat", "maxLon", "zoom"})
+    public VehicleViewportResponse getVehiclesInViewport(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double minLat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double minLon,
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double maxLat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double maxLon,
+            @RequestParam @Min(0) @Max(22) int zoom
+    ) {
+        return vehicleViewportService.findInViewport(minLat, minLon, maxLat, maxLon, zoom);
+    }
+
     // 🔹 Stop detay (HARİTA İÇİN GEREKLİ)
     @GetMapping("/stops/{stopId}")
     public Stop getStop(@PathVariable String stopId) {
@@ -0,0 +1,72 @@
+package com.smartstop.controller;
+
+import com.smartstop.domain.ArrivalSubscription;
+import com.smartstop.dto.SubscriptionRequest;
+import com.smartstop.dto.SubscriptionResponse;
+import com.smartstop.mapper.SubscriptionMapper;
+import com.smartstop.service.ArrivalAlertEngine;
+import com.smartstop.service.ArrivalAlertPublisher;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/v1")
+@Validated
+public class SubscriptionController {
+
+    private final ArrivalAlertEngine alertEngine;
+    private final ArrivalAlertPublisher alertPublisher;
+    private final SubscriptionMapper subscriptionMapper;
+
+    public SubscriptionController(ArrivalAlertEngine alertEngine,
+                                  ArrivalAlertPublisher alertPublisher,
+                                  SubscriptionMapper subscriptionMapper) {
+        this.alertEngine = alertEngine;
+        this.alertPublisher = alertPublisher;
+        this.subscriptionMapper = subscriptionMapper;
+    }
+
+    @PostMapping("/subscriptions")
+    public ResponseEntity<SubscriptionResponse> subscribe(@Valid @RequestBody SubscriptionRequest request) {
+        ArrivalSubscription subscription = alertEngine.subscribe(
+                request.getStopId(),
+                request.getRouteId(),
+                request.getThresholdMinutes()
+        );
+        return ResponseEntity.status(HttpStatus.CREATED).body(subscriptionMapper.toResponse(subscription));
+    }
+
+    @GetMapping("/subscriptions/{subscriptionId}")
+    public SubscriptionResponse getSubscription(@PathVariable String subscriptionId) {
+        return subscriptionMapper.toResponse(alertEngine.getSubscription(subscriptionId));
+    }
+
+    @DeleteMapping("/subscriptions/{subscriptionId}")
+    public ResponseEntity<Void> unsubscribe(@PathVariable String subscriptionId) {
+        alertEngine.unsubscribe(subscriptionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // 🔹 Eşik geçildiğinde "arrival" olayı gönderilir
+    @GetMapping(value = "/subscriptions/{subscriptionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(@PathVariable String subscriptionId) {
+        ArrivalSubscription subscription = alertEngine.getSubscription(subscriptionId);
+        long timeoutMillis = Math.max(1, Duration.between(Instant.now(), subscription.getExpiresAt()).toMillis());
+        return alertPublisher.connect(subscriptionId, timeoutMillis);
+    }
+
+    @GetMapping("/subscriptions/stats")
+    public Map<String, Object> stats() {
+        return alertEngine.getStats();
+    }
+}
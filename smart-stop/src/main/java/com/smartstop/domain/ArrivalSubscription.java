@@ -0,0 +1,50 @@
+package com.smartstop.domain;
+
+import java.time.Instant;
+
+public class ArrivalSubscription {
+
+    private final String id;
+    private final String stopId;
+    private final String routeId;
+    private final long thresholdSeconds;
+    private final Instant expiresAt;
+
+    public ArrivalSubscription(
+            String id,
+            String stopId,
+            String routeId,
+            long thresholdSeconds,
+            Instant expiresAt
+    ) {
+        this.id = id;
+        this.stopId = stopId;
+        this.routeId = routeId;
+        this.thresholdSeconds = thresholdSeconds;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getStopId() {
+        return stopId;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public long getThresholdSeconds() {
+        return thresholdSeconds;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(Instant now) {
+        return now.isAfter(expiresAt);
+    }
+}
@@ -3,12 +3,18 @@ package com.smartstop.domain;
 public class BusLocation {
 
     private final String busId;
+    private final String routeId;
     private final double latitude;
     private final double longitude;
     private final double speed;
 
     public BusLocation(String busId, double latitude, double longitude, double speed) {
+        this(busId, null, latitude, longitude, speed);
+    }
+
+    public BusLocation(String busId, String routeId, double latitude, double longitude, double speed) {
         this.busId = busId;
+        this.routeId = routeId;
         this.latitude = latitude;
         this.longitude = longitude;
         this.speed = speed;
@@ -18,6 +24,10 @@ public class BusLocation {
         return busId;
     }
 
+    public String getRouteId() {
+        return routeId;
+    }
+
     public double getLatitude() {
         return latitude;
     }
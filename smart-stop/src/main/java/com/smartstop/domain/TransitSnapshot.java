@@ -0,0 +1,42 @@
+package com.smartstop.domain;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TransitSnapshot {
+
+    private final Instant capturedAt;
+    private final List<BusLocation> vehicles;
+    private final Map<String, Stop> stops;
+    private final Map<String, Set<String>> routeIdsByStop;
+
+    public TransitSnapshot(
+            Instant capturedAt,
+            List<BusLocation> vehicles,
+            Map<String, Stop> stops,
+            Map<String, Set<String>> routeIdsByStop
+    ) {
+        this.capturedAt = capturedAt;
+        this.vehicles = vehicles;
+        this.stops = stops;
+        this.routeIdsByStop = routeIdsByStop;
+    }
+
+    public Instant getCapturedAt() {
+        return capturedAt;
+    }
+
+    public List<BusLocation> getVehicles() {
+        return vehicles;
+    }
+
+    public Map<String, Stop> getStops() {
+        return stops;
+    }
+
+    public Map<String, Set<String>> getRouteIdsByStop() {
+        return routeIdsByStop;
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartstop.domain;
+
+public class VehicleCluster {
+
+    private final int count;
+    private final double latitude;
+    private final double longitude;
+
+    public VehicleCluster(int count, double latitude, double longitude) {
+        this.count = count;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+}
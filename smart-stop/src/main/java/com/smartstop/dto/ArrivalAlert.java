@@ -0,0 +1,53 @@
+package com.smartstop.dto;
+
+import java.time.LocalDateTime;
+
+public class ArrivalAlert {
+
+    private final String subscriptionId;
+    private final String busId;
+    private final String stopId;
+    private final String routeId;
+    private final long estimatedArrivalSeconds;
+    private final LocalDateTime estimatedArrivalTime;
+
+    public ArrivalAlert(
+            String subscriptionId,
+            String busId,
+            String stopId,
+            String routeId,
+            long estimatedArrivalSeconds,
+            LocalDateTime estimatedArrivalTime
+    ) {
+        this.subscriptionId = subscriptionId;
+        this.busId = busId;
+        this.stopId = stopId;
+        this.routeId = routeId;
+        this.estimatedArrivalSeconds = estimatedArrivalSeconds;
+        this.estimatedArrivalTime = estimatedArrivalTime;
+    }
+
+    public String getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public String getBusId() {
+        return busId;
+    }
+
+    public String getStopId() {
+        return stopId;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public long getEstimatedArrivalSeconds() {
+        return estimatedArrivalSeconds;
+    }
+
+    public LocalDateTime getEstimatedArrivalTime() {
+        return estimatedArrivalTime;
+    }
+}
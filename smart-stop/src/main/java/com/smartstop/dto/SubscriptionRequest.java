@@ -0,0 +1,44 @@
+package com.smartstop.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class SubscriptionRequest {
+
+    @NotBlank
+    private String stopId;
+
+    @NotBlank
+    private String routeId;
+
+    @NotNull
+    @Min(1)
+    @Max(60)
+    private Integer thresholdMinutes;
+
+    public String getStopId() {
+        return stopId;
+    }
+
+    public void setStopId(String stopId) {
+        this.stopId = stopId;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public void setRouteId(String routeId) {
+        this.routeId = routeId;
+    }
+
+    public Integer getThresholdMinutes() {
+        return thresholdMinutes;
+    }
+
+    public void setThresholdMinutes(Integer thresholdMinutes) {
+        this.thresholdMinutes = thresholdMinutes;
+    }
+}
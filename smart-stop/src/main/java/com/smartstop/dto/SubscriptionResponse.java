@@ -0,0 +1,46 @@
+package com.smartstop.dto;
+
+import java.time.Instant;
+
+public class SubscriptionResponse {
+
+    private final String id;
+    private final String stopId;
+    private final String routeId;
+    private final long thresholdMinutes;
+    private final Instant expiresAt;
+
+    public SubscriptionResponse(
+            String id,
+            String stopId,
+            String routeId,
+            long thresholdMinutes,
+            Instant expiresAt
+    ) {
+        this.id = id;
+        this.stopId = stopId;
+        this.routeId = routeId;
+        this.thresholdMinutes = thresholdMinutes;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getStopId() {
+        return stopId;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public long getThresholdMinutes() {
+        return thresholdMinutes;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
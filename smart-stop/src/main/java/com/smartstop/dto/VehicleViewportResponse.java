@@ -0,0 +1,42 @@
+package com.smartstop.dto;
+
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.VehicleCluster;
+
+import java.util.List;
+
+public class VehicleViewportResponse {
+
+    private final int totalInViewport;
+    private final boolean clustered;
+    private final List<BusLocation> vehicles;
+    private final List<VehicleCluster> clusters;
+
+    public VehicleViewportResponse(
+            int totalInViewport,
+            boolean clustered,
+            List<BusLocation> vehicles,
+            List<VehicleCluster> clusters
+    ) {
+        this.totalInViewport = totalInViewport;
+        this.clustered = clustered;
+        this.vehicles = vehicles;
+        this.clusters = clusters;
+    }
+
+    public int getTotalInViewport() {
+        return totalInViewport;
+    }
+
+    public boolean isClustered() {
+        return clustered;
+    }
+
+    public List<BusLocation> getVehicles() {
+        return vehicles;
+    }
+
+    public List<VehicleCluster> getClusters() {
+        return clusters;
+    }
+}
@@ -0,0 +1,25 @@
+package com.smartstop.event;
+
+import com.smartstop.domain.BusLocation;
+
+import java.time.Instant;
+import java.util.List;
+
+public class VehicleSnapshotUpdatedEvent {
+
+    private final List<BusLocation> vehicles;
+    private final Instant capturedAt;
+
+    public VehicleSnapshotUpdatedEvent(List<BusLocation> vehicles, Instant capturedAt) {
+        this.vehicles = vehicles;
+        this.capturedAt = capturedAt;
+    }
+
+    public List<BusLocation> getVehicles() {
+        return vehicles;
+    }
+
+    public Instant getCapturedAt() {
+        return capturedAt;
+    }
+}
@@ -28,6 +28,48 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
     }
 
+    @ExceptionHandler(SubscriptionNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleSubscriptionNotFoundException(
+            SubscriptionNotFoundException exception,
+            HttpServletRequest request
+    ) {
+        Map<String, Object> body = Map.of(
+                "error", exception.getMessage(),
+                "status", HttpStatus.NOT_FOUND.value(),
+                "timestamp", LocalDateTime.now(),
+                "path", request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    }
+
+    @ExceptionHandler(SubscriptionLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleSubscriptionLimitExceededException(
+            SubscriptionLimitExceededException exception,
+            HttpServletRequest request
+    ) {
+        Map<String, Object> body = Map.of(
+                "error", exception.getMessage(),
+                "status", HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "timestamp", LocalDateTime.now(),
+                "path", request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
+    @ExceptionHandler(RouteNotServingStopException.class)
+    public ResponseEntity<Map<String, Object>> handleRouteNotServingStopException(
+            RouteNotServingStopException exception,
+            HttpServletRequest request
+    ) {
+        Map<String, Object> body = Map.of(
+                "error", exception.getMessage(),
+                "status", HttpStatus.BAD_REQUEST.value(),
+                "timestamp", LocalDateTime.now(),
+                "path", request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<Map<String, Object>> handleConstraintViolationException(HttpServletRequest request) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(validationErrorBody(request));
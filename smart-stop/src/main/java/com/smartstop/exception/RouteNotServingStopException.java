@@ -0,0 +1,8 @@
+package com.smartstop.exception;
+
+public class RouteNotServingStopException extends RuntimeException {
+
+    public RouteNotServingStopException(String routeId, String stopId) {
+        super("Route " + routeId + " does not serve stop: " + stopId);
+    }
+}
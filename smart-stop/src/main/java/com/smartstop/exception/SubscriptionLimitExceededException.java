@@ -0,0 +1,8 @@
+package com.smartstop.exception;
+
+public class SubscriptionLimitExceededException extends RuntimeException {
+
+    public SubscriptionLimitExceededException(int maxSubscriptions) {
+        super("Subscription limit reached: " + maxSubscriptions);
+    }
+}
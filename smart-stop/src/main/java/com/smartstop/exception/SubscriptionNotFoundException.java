@@ -0,0 +1,8 @@
+package com.smartstop.exception;
+
+public class SubscriptionNotFoundException extends RuntimeException {
+
+    public SubscriptionNotFoundException(String subscriptionId) {
+        super("Subscription not found with id: " + subscriptionId);
+    }
+}
@@ -0,0 +1,19 @@
+package com.smartstop.mapper;
+
+import com.smartstop.domain.ArrivalSubscription;
+import com.smartstop.dto.SubscriptionResponse;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SubscriptionMapper {
+
+    public SubscriptionResponse toResponse(ArrivalSubscription subscription) {
+        return new SubscriptionResponse(
+                subscription.getId(),
+                subscription.getStopId(),
+                subscription.getRouteId(),
+                subscription.getThresholdSeconds() / 60,
+                subscription.getExpiresAt()
+        );
+    }
+}
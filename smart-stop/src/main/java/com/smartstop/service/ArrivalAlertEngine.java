@@ -0,0 +1,489 @@
+package com.smartstop.service;
+
+import com.smartstop.domain.ArrivalSubscription;
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.Stop;
+import com.smartstop.dto.ArrivalAlert;
+import com.smartstop.event.VehicleSnapshotUpdatedEvent;
+import com.smartstop.exception.RouteNotServingStopException;
+import com.smartstop.exception.SubscriptionLimitExceededException;
+import com.smartstop.exception.SubscriptionNotFoundException;
+import com.smartstop.util.ArrivalTimeEstimator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates "route X is N minutes from stop Y" subscriptions on every live vehicle refresh.
+ *
+ * <p>Subscriptions are indexed by route and then by stop, and each stop bucket keeps its
+ * subscriptions sorted by threshold. A tick only looks at vehicles that are new or moved since
+ * the previous snapshot, and only at the stop buckets of that vehicle's route.
+ *
+ * <p>For every vehicle a bucket remembers the lowest ETA it has alerted down to. A subscription
+ * fires when the vehicle's ETA drops below that mark and reaches the threshold, so jitter around
+ * a threshold and the jumps in the ETA model do not fire it again. The mark re-arms once the ETA
+ * rises more than {@code rearm-seconds} above it, i.e. the vehicle has passed the stop or turned
+ * away. New subscriptions are checked against the whole snapshot on the next tick.
+ *
+ * <p>Ticks run on a dedicated thread, so neither the vehicle refresh nor a request thread that
+ * triggered a cold fetch ever pays for alert evaluation. A snapshot that arrives while a tick is
+ * still queued replaces it; vehicles are diffed against the last evaluated snapshot either way.
+ *
+ * <p>Only routes that serve the stop are accepted, and route and stop buckets are unlinked as soon
+ * as they empty, so the index never holds more than the live subscriptions need.
+ */
+@Service
+public class ArrivalAlertEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ArrivalAlertEngine.class);
+
+    private final StopService stopService;
+    private final ArrivalService arrivalService;
+    private final ArrivalAlertPublisher alertPublisher;
+    private final int maxSubscriptions;
+    private final Duration subscriptionTtl;
+    private final long rearmSeconds;
+
+    private final Map<String, ArrivalSubscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, StopRouteBucket>> bucketsByRoute = new ConcurrentHashMap<>();
+    private final Queue<PendingSubscription> pendingSubscriptions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+    private final AtomicLong alertsFired = new AtomicLong();
+    private final AtomicReference<VehicleSnapshotUpdatedEvent> pendingTick = new AtomicReference<>();
+    private final ExecutorService tickExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "arrival-alert-tick");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only read and replaced while holding the engine lock.
+    private Map<String, BusLocation> previousVehicles = Map.of();
+
+    private volatile long lastTickMicros;
+    private volatile int lastTickChangedVehicles;
+    private volatile int lastTickBucketsEvaluated;
+    private volatile int lastTickAlertsFired;
+
+    public ArrivalAlertEngine(
+            StopService stopService,
+            ArrivalService arrivalService,
+            ArrivalAlertPublisher alertPublisher,
+            @Value("${smartstop.alerts.max-subscriptions:100000}") int maxSubscriptions,
+            @Value("${smartstop.alerts.subscription-ttl-minutes:120}") long subscriptionTtlMinutes,
+            @Value("${smartstop.alerts.rearm-seconds:300}") long rearmSeconds
+    ) {
+        this.stopService = stopService;
+        this.arrivalService = arrivalService;
+        this.alertPublisher = alertPublisher;
+        this.maxSubscriptions = maxSubscriptions;
+        this.subscriptionTtl = Duration.ofMinutes(subscriptionTtlMinutes);
+        this.rearmSeconds = rearmSeconds;
+    }
+
+    public ArrivalSubscription subscribe(String stopId, String routeId, int thresholdMinutes) {
+        Stop stop = stopService.getStopById(stopId);
+        if (!arrivalService.getRouteIdsForStop(stopId).contains(routeId)) {
+            throw new RouteNotServingStopException(routeId, stopId);
+        }
+        reserveSlot();
+
+        ArrivalSubscription subscription = new ArrivalSubscription(
+                UUID.randomUUID().toString(),
+                stopId,
+                routeId,
+                thresholdMinutes * 60L,
+                Instant.now().plus(subscriptionTtl)
+        );
+        // Registered before the subscription is visible, so alerts from the next tick wait for the
+        // client to open its stream and a racing unsubscribe always finds the mailbox to remove.
+        alertPublisher.register(subscription.getId());
+        subscriptions.put(subscription.getId(), subscription);
+        pendingSubscriptions.add(new PendingSubscription(subscription, stop));
+        return subscription;
+    }
+
+    public ArrivalSubscription getSubscription(String subscriptionId) {
+        ArrivalSubscription subscription = subscriptions.get(subscriptionId);
+        if (subscription == null) {
+            throw new SubscriptionNotFoundException(subscriptionId);
+        }
+        return subscription;
+    }
+
+    public void unsubscribe(String subscriptionId) {
+        if (!remove(subscriptionId)) {
+            throw new SubscriptionNotFoundException(subscriptionId);
+        }
+    }
+
+    @EventListener
+    public void onVehicleSnapshotUpdated(VehicleSnapshotUpdatedEvent event) {
+        if (pendingTick.getAndSet(event) == null) {
+            tickExecutor.execute(this::evaluatePendingTick);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        tickExecutor.shutdownNow();
+    }
+
+    private void evaluatePendingTick() {
+        VehicleSnapshotUpdatedEvent event = pendingTick.getAndSet(null);
+        if (event == null) {
+            return;
+        }
+        try {
+            evaluateTick(event);
+        } catch (RuntimeException e) {
+            log.warn("Alert tick for snapshot captured at {} failed", event.getCapturedAt(), e);
+        }
+    }
+
+    synchronized void evaluateTick(VehicleSnapshotUpdatedEvent event) {
+        long startNanos = System.nanoTime();
+        TickClock clock = new TickClock(Instant.now(), LocalDateTime.now());
+        List<BusLocation> vehicles = event.getVehicles();
+
+        Map<String, BusLocation> currentVehicles = new HashMap<>(vehicles.size() * 2);
+        List<ArrivalAlert> alerts = new ArrayList<>();
+        int changedVehicles = 0;
+        int bucketsEvaluated = 0;
+
+        for (BusLocation vehicle : vehicles) {
+            currentVehicles.put(vehicle.getBusId(), vehicle);
+
+            BusLocation previous = previousVehicles.get(vehicle.getBusId());
+            if (previous != null && isUnchanged(previous, vehicle)) {
+                continue;
+            }
+            changedVehicles++;
+
+            if (vehicle.getRouteId() == null) {
+                continue;
+            }
+            Map<String, StopRouteBucket> stopBuckets = bucketsByRoute.get(vehicle.getRouteId());
+            if (stopBuckets == null) {
+                continue;
+            }
+
+            for (StopRouteBucket bucket : stopBuckets.values()) {
+                bucketsEvaluated++;
+                bucket.evaluate(vehicle, clock, rearmSeconds, alerts);
+            }
+        }
+
+        previousVehicles = currentVehicles;
+        activatePendingSubscriptions(vehicles, clock, alerts);
+        alertPublisher.publish(alerts);
+        alertsFired.addAndGet(alerts.size());
+
+        lastTickMicros = (System.nanoTime() - startNanos) / 1_000;
+        lastTickChangedVehicles = changedVehicles;
+        lastTickBucketsEvaluated = bucketsEvaluated;
+        lastTickAlertsFired = alerts.size();
+        log.debug("Alert tick: {} vehicles, {} changed, {} buckets, {} alerts in {} us",
+                vehicles.size(), changedVehicles, bucketsEvaluated, alerts.size(), lastTickMicros);
+    }
+
+    @Scheduled(fixedDelayString = "${smartstop.alerts.purge-interval-ms:60000}")
+    public synchronized void purgeExpiredSubscriptions() {
+        Instant now = Instant.now();
+        for (ArrivalSubscription subscription : subscriptions.values()) {
+            if (subscription.isExpired(now)) {
+                remove(subscription.getId());
+            }
+        }
+
+        for (Map.Entry<String, Map<String, StopRouteBucket>> routeEntry : bucketsByRoute.entrySet()) {
+            for (StopRouteBucket bucket : routeEntry.getValue().values()) {
+                bucket.forgetVehiclesNotOn(routeEntry.getKey(), previousVehicles);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeSubscriptions", subscriptionCount.get());
+        stats.put("maxSubscriptions", maxSubscriptions);
+        stats.put("connectedStreams", alertPublisher.getConnectedCount());
+        stats.put("alertsFired", alertsFired.get());
+        stats.put("alertsDelivered", alertPublisher.getDeliveredCount());
+        stats.put("alertsUndelivered", alertPublisher.getUndeliveredCount());
+        stats.put("lastTickMicros", lastTickMicros);
+        stats.put("lastTickChangedVehicles", lastTickChangedVehicles);
+        stats.put("lastTickBucketsEvaluated", lastTickBucketsEvaluated);
+        stats.put("lastTickAlertsFired", lastTickAlertsFired);
+        return stats;
+    }
+
+    private void activatePendingSubscriptions(List<BusLocation> vehicles, TickClock clock, List<ArrivalAlert> alerts) {
+        if (pendingSubscriptions.isEmpty()) {
+            return;
+        }
+
+        Map<StopRouteBucket, List<ArrivalSubscription>> activatedByBucket = new LinkedHashMap<>();
+        PendingSubscription pending;
+        while ((pending = pendingSubscriptions.poll()) != null) {
+            ArrivalSubscription subscription = pending.subscription;
+            Stop stop = pending.stop;
+            if (!subscriptions.containsKey(subscription.getId())) {
+                continue;
+            }
+
+            StopRouteBucket bucket = link(subscription, stop);
+            if (!subscriptions.containsKey(subscription.getId())) {
+                // Unsubscribed while being activated; undo so the bucket does not keep an orphan.
+                unlink(subscription);
+                continue;
+            }
+            activatedByBucket.computeIfAbsent(bucket, key -> new ArrayList<>()).add(subscription);
+        }
+        if (activatedByBucket.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<BusLocation>> vehiclesByRoute = new HashMap<>();
+        for (BusLocation vehicle : vehicles) {
+            if (vehicle.getRouteId() != null) {
+                vehiclesByRoute.computeIfAbsent(vehicle.getRouteId(), key -> new ArrayList<>()).add(vehicle);
+            }
+        }
+        activatedByBucket.forEach((bucket, activated) -> bucket.evaluateNewSubscriptions(
+                activated,
+                vehiclesByRoute.getOrDefault(activated.get(0).getRouteId(), List.of()),
+                clock,
+                alerts
+        ));
+    }
+
+    private void reserveSlot() {
+        while (true) {
+            int current = subscriptionCount.get();
+            if (current >= maxSubscriptions) {
+                throw new SubscriptionLimitExceededException(maxSubscriptions);
+            }
+            if (subscriptionCount.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    private boolean remove(String subscriptionId) {
+        ArrivalSubscription subscription = subscriptions.remove(subscriptionId);
+        if (subscription == null) {
+            return false;
+        }
+        subscriptionCount.decrementAndGet();
+        alertPublisher.unregister(subscriptionId);
+        unlink(subscription);
+        return true;
+    }
+
+    // Linking and unlinking both run inside compute on the route entry, so a route map is never
+    // dropped while a subscription is being added to it.
+    private StopRouteBucket link(ArrivalSubscription subscription, Stop stop) {
+        StopRouteBucket[] linked = new StopRouteBucket[1];
+        bucketsByRoute.compute(subscription.getRouteId(), (routeId, stopBuckets) -> {
+            Map<String, StopRouteBucket> buckets = stopBuckets != null ? stopBuckets : new ConcurrentHashMap<>();
+            linked[0] = buckets.computeIfAbsent(subscription.getStopId(), key -> new StopRouteBucket(stop));
+            linked[0].add(subscription);
+            return buckets;
+        });
+        return linked[0];
+    }
+
+    private void unlink(ArrivalSubscription subscription) {
+        bucketsByRoute.computeIfPresent(subscription.getRouteId(), (routeId, stopBuckets) -> {
+            StopRouteBucket bucket = stopBuckets.get(subscription.getStopId());
+            if (bucket != null && bucket.remove(subscription)) {
+                stopBuckets.remove(subscription.getStopId());
+            }
+            return stopBuckets.isEmpty() ? null : stopBuckets;
+        });
+    }
+
+    int getIndexedRouteCount() {
+        return bucketsByRoute.size();
+    }
+
+    private static boolean isUnchanged(BusLocation previous, BusLocation vehicle) {
+        return previous.getLatitude() == vehicle.getLatitude()
+                && previous.getLongitude() == vehicle.getLongitude()
+                && Objects.equals(previous.getRouteId(), vehicle.getRouteId());
+    }
+
+    // Read the clock once per tick rather than once per fired alert.
+    static final class TickClock {
+
+        private final Instant instant;
+        private final LocalDateTime localTime;
+
+        TickClock(Instant instant, LocalDateTime localTime) {
+            this.instant = instant;
+            this.localTime = localTime;
+        }
+    }
+
+    private static final class PendingSubscription {
+
+        private final ArrivalSubscription subscription;
+        private final Stop stop;
+
+        private PendingSubscription(ArrivalSubscription subscription, Stop stop) {
+            this.subscription = subscription;
+            this.stop = stop;
+        }
+    }
+
+    static final class StopRouteBucket {
+
+        private static final ArrivalSubscription[] EMPTY = new ArrivalSubscription[0];
+
+        private final Stop stop;
+        // Sorted by threshold and replaced on every change, so ticks can read it without locking.
+        private volatile ArrivalSubscription[] byThreshold = EMPTY;
+        // Lowest ETA each vehicle has been alerted down to; only touched while holding the engine lock.
+        private final Map<String, Long> alertedEtaByVehicle = new HashMap<>();
+
+        StopRouteBucket(Stop stop) {
+            this.stop = stop;
+        }
+
+        synchronized void add(ArrivalSubscription subscription) {
+            ArrivalSubscription[] current = byThreshold;
+            int index = firstIndexAtLeast(current, subscription.getThresholdSeconds() + 1);
+            ArrivalSubscription[] next = new ArrivalSubscription[current.length + 1];
+            System.arraycopy(current, 0, next, 0, index);
+            next[index] = subscription;
+            System.arraycopy(current, index, next, index + 1, current.length - index);
+            byThreshold = next;
+        }
+
+        /**
+         * Returns true when the bucket became empty and should be unlinked from the index.
+         */
+        synchronized boolean remove(ArrivalSubscription subscription) {
+            ArrivalSubscription[] current = byThreshold;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == subscription) {
+                    ArrivalSubscription[] next = new ArrivalSubscription[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    byThreshold = next.length == 0 ? EMPTY : next;
+                    break;
+                }
+            }
+            return byThreshold.length == 0;
+        }
+
+        void evaluate(BusLocation vehicle, TickClock clock, long rearmSeconds, List<ArrivalAlert> alerts) {
+            long eta = estimate(vehicle);
+            Long alertedEta = alertedEtaByVehicle.get(vehicle.getBusId());
+
+            if (alertedEta == null || eta < alertedEta) {
+                // Fire every subscription with eta <= threshold < alertedEta.
+                long upperBound = alertedEta == null ? Long.MAX_VALUE : alertedEta;
+                ArrivalSubscription[] current = byThreshold;
+                for (int i = firstIndexAtLeast(current, eta); i < current.length; i++) {
+                    if (current[i].getThresholdSeconds() >= upperBound) {
+                        break;
+                    }
+                    fire(current[i], vehicle, eta, clock, alerts);
+                }
+                alertedEtaByVehicle.put(vehicle.getBusId(), eta);
+            } else if (eta > alertedEta + rearmSeconds) {
+                // The vehicle is moving away, e.g. it passed the stop; alert again on its next approach.
+                alertedEtaByVehicle.put(vehicle.getBusId(), eta);
+            }
+        }
+
+        void evaluateNewSubscriptions(List<ArrivalSubscription> activated,
+                                      List<BusLocation> routeVehicles,
+                                      TickClock clock,
+                                      List<ArrivalAlert> alerts) {
+            for (BusLocation vehicle : routeVehicles) {
+                long eta = estimate(vehicle);
+                for (ArrivalSubscription subscription : activated) {
+                    if (eta <= subscription.getThresholdSeconds()) {
+                        fire(subscription, vehicle, eta, clock, alerts);
+                    }
+                }
+                // Existing subscriptions were already evaluated for this vehicle, so never raise its mark.
+                alertedEtaByVehicle.merge(vehicle.getBusId(), eta, Math::min);
+            }
+        }
+
+        void forgetVehiclesNotOn(String routeId, Map<String, BusLocation> vehicles) {
+            alertedEtaByVehicle.keySet().removeIf(busId -> {
+                BusLocation vehicle = vehicles.get(busId);
+                return vehicle == null || !routeId.equals(vehicle.getRouteId());
+            });
+        }
+
+        int trackedVehicleCount() {
+            return alertedEtaByVehicle.size();
+        }
+
+        private long estimate(BusLocation vehicle) {
+            return ArrivalTimeEstimator.estimateArrivalSeconds(
+                    stop.getLatitude(), stop.getLongitude(), vehicle.getLatitude(), vehicle.getLongitude());
+        }
+
+        private static void fire(ArrivalSubscription subscription,
+                                 BusLocation vehicle,
+                                 long eta,
+                                 TickClock clock,
+                                 List<ArrivalAlert> alerts) {
+            if (subscription.isExpired(clock.instant)) {
+                return;
+            }
+            alerts.add(new ArrivalAlert(
+                    subscription.getId(),
+                    vehicle.getBusId(),
+                    subscription.getStopId(),
+                    subscription.getRouteId(),
+                    eta,
+                    clock.localTime.plusSeconds(eta)
+            ));
+        }
+
+        private static int firstIndexAtLeast(ArrivalSubscription[] sorted, long thresholdSeconds) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid].getThresholdSeconds() < thresholdSeconds) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
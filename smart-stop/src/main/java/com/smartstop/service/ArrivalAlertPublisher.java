@@ -0,0 +1,216 @@
+package com.smartstop.service;
+
+import com.smartstop.dto.ArrivalAlert;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes fired arrival alerts to the server-sent event stream of each subscription.
+ *
+ * <p>Every subscription gets a bounded mailbox when it is created, so alerts fired before the
+ * client opens its stream, or while it reconnects, wait there and are sent once a stream is
+ * attached. At most one dispatcher thread writes to a given stream at a time, so a stalled
+ * client ties up one dispatcher thread and fills only its own mailbox; alerts that do not fit
+ * are dropped and counted as undelivered.
+ */
+@Component
+public class ArrivalAlertPublisher {
+
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor dispatcher;
+    private final int mailboxCapacity;
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong undelivered = new AtomicLong();
+
+    public ArrivalAlertPublisher(
+            @Value("${smartstop.alerts.dispatch-threads:4}") int dispatchThreads,
+            @Value("${smartstop.alerts.dispatch-queue-capacity:10000}") int dispatchQueueCapacity,
+            @Value("${smartstop.alerts.mailbox-capacity:32}") int mailboxCapacity
+    ) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(
+                dispatchThreads,
+                dispatchThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(dispatchQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "arrival-alert-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    public void register(String subscriptionId) {
+        mailboxes.putIfAbsent(subscriptionId, new Mailbox(mailboxCapacity));
+    }
+
+    public void unregister(String subscriptionId) {
+        Mailbox mailbox = mailboxes.remove(subscriptionId);
+        if (mailbox != null) {
+            SseEmitter emitter = mailbox.emitter.get();
+            if (detach(mailbox, emitter)) {
+                emitter.complete();
+            }
+            undelivered.addAndGet(mailbox.clear());
+        }
+    }
+
+    public SseEmitter connect(String subscriptionId, long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Mailbox mailbox = mailboxes.get(subscriptionId);
+        if (mailbox == null) {
+            // Unsubscribed or expired since the caller looked it up.
+            emitter.complete();
+            return emitter;
+        }
+
+        emitter.onCompletion(() -> detach(mailbox, emitter));
+        emitter.onTimeout(() -> detach(mailbox, emitter));
+        emitter.onError(error -> detach(mailbox, emitter));
+
+        SseEmitter previous = mailbox.emitter.getAndSet(emitter);
+        if (previous == null) {
+            connected.incrementAndGet();
+        } else {
+            previous.complete();
+        }
+        // Send whatever fired before this stream was attached.
+        schedule(mailbox);
+        return emitter;
+    }
+
+    public void publish(List<ArrivalAlert> alerts) {
+        for (ArrivalAlert alert : alerts) {
+            Mailbox mailbox = mailboxes.get(alert.getSubscriptionId());
+            if (mailbox == null || !mailbox.offer(alert)) {
+                undelivered.incrementAndGet();
+                continue;
+            }
+            schedule(mailbox);
+        }
+    }
+
+    public int getConnectedCount() {
+        return connected.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getUndeliveredCount() {
+        return undelivered.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private boolean detach(Mailbox mailbox, SseEmitter emitter) {
+        if (emitter != null && mailbox.emitter.compareAndSet(emitter, null)) {
+            connected.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void schedule(Mailbox mailbox) {
+        if (mailbox.emitter.get() == null || !mailbox.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> drain(mailbox));
+        } catch (RejectedExecutionException e) {
+            // Left in the mailbox; the next alert or reconnect for this stream retries the hand-off.
+            mailbox.draining.set(false);
+        }
+    }
+
+    private void drain(Mailbox mailbox) {
+        SseEmitter emitter;
+        while ((emitter = mailbox.emitter.get()) != null) {
+            ArrivalAlert alert = mailbox.poll();
+            if (alert == null) {
+                break;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("arrival").data(alert));
+                delivered.incrementAndGet();
+            } catch (IOException | IllegalStateException e) {
+                // The rest stay queued for the client's next stream.
+                undelivered.incrementAndGet();
+                detach(mailbox, emitter);
+            }
+        }
+        mailbox.draining.set(false);
+        // An alert offered or a stream attached after the last poll but before the flag was cleared would otherwise wait.
+        if (!mailbox.isEmpty()) {
+            schedule(mailbox);
+        }
+    }
+
+    // Kept light because every active subscription has one, connected or not.
+    private static final class Mailbox {
+
+        private final Queue<ArrivalAlert> alerts = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final int capacity;
+        private final AtomicReference<SseEmitter> emitter = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Mailbox(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private boolean offer(ArrivalAlert alert) {
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                return false;
+            }
+            alerts.add(alert);
+            return true;
+        }
+
+        private ArrivalAlert poll() {
+            ArrivalAlert alert = alerts.poll();
+            if (alert != null) {
+                size.decrementAndGet();
+            }
+            return alert;
+        }
+
+        private boolean isEmpty() {
+            return alerts.isEmpty();
+        }
+
+        private int clear() {
+            int cleared = 0;
+            while (poll() != null) {
+                cleared++;
+            }
+            return cleared;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.smartstop.domain.ArrivalEstimate;
 import com.smartstop.domain.BusLocation;
 import com.smartstop.domain.Stop;
+import com.smartstop.util.ArrivalTimeEstimator;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -18,14 +19,17 @@ import java.util.Set;
 public class ArrivalService {
 
     private static final String ROUTES_BY_STOP_URL = "https://api-v3.mbta.com/routes?filter[stop]={stopId}";
-    private static final String VEHICLES_URL = "https://api-v3.mbta.com/vehicles";
 
     private final RestTemplate restTemplate;
     private final StopService stopService;
+    private final TransitSnapshotService snapshotService;
 
-    public ArrivalService(RestTemplate restTemplate, StopService stopService) {
+    public ArrivalService(RestTemplate restTemplate,
+                          StopService stopService,
+                          TransitSnapshotService snapshotService) {
         this.restTemplate = restTemplate;
         this.stopService = stopService;
+        this.snapshotService = snapshotService;
     }
 
     public List<ArrivalEstimate> calculateArrivalsForStop(String stopId, Integer limit) {
@@ -39,28 +43,13 @@ public class ArrivalService {
         List<ArrivalEstimate> estimates = new ArrayList<>();
 
         for (BusLocation location : vehicles) {
-            double distanceKm = calculateDistanceKm(
+            long arrivalSeconds = ArrivalTimeEstimator.estimateArrivalSeconds(
                     stop.getLatitude(),
                     stop.getLongitude(),
                     location.getLatitude(),
                     location.getLongitude()
             );
 
-            double speedKmh;
-            if (distanceKm < 1) {
-                speedKmh = 20;
-            } else if (distanceKm < 5) {
-                speedKmh = 30;
-            } else {
-                speedKmh = 40;
-            }
-
-            double arrivalSecondsDouble = (distanceKm / speedKmh) * 3600;
-            long arrivalSeconds = Math.round(arrivalSecondsDouble);
-            if (arrivalSeconds < 1) {
-                arrivalSeconds = 1;
-            }
-
             ArrivalEstimate estimate = new ArrivalEstimate(
                     location.getBusId(),
                     stop.getId(),
@@ -81,13 +70,19 @@ public class ArrivalService {
         return getVehiclesForRoutes(null);
     }
 
-    private Set<String> getRouteIdsForStop(String stopId) {
-        Set<String> routeIds = new HashSet<>();
+    public Set<String> getRouteIdsForStop(String stopId) {
+        Set<String> routeIds = snapshotService.getRouteIdsForStop(stopId, this::fetchRouteIdsForStop);
+        return routeIds != null ? routeIds : Set.of();
+    }
+
+    // Returns null for an unusable response so the snapshot cache does not remember it as "no routes".
+    private Set<String> fetchRouteIdsForStop(String stopId) {
         JsonNode response = restTemplate.getForObject(ROUTES_BY_STOP_URL, JsonNode.class, stopId);
         if (response == null || !response.has("data")) {
-            return routeIds;
+            return null;
         }
 
+        Set<String> routeIds = new HashSet<>();
         for (JsonNode routeNode : response.path("data")) {
             String routeId = routeNode.path("id").asText();
             if (!routeId.isBlank()) {
@@ -98,47 +93,17 @@ public class ArrivalService {
     }
 
     private List<BusLocation> getVehiclesForRoutes(Set<String> routeIds) {
-        List<BusLocation> vehicles = new ArrayList<>();
-        JsonNode response = restTemplate.getForObject(VEHICLES_URL, JsonNode.class);
-        if (response == null || !response.has("data")) {
-            return vehicles;
+        List<BusLocation> snapshot = snapshotService.getVehicles();
+        if (routeIds == null) {
+            return snapshot;
         }
 
-        for (JsonNode vehicleNode : response.path("data")) {
-            String routeId = vehicleNode.path("relationships").path("route").path("data").path("id").asText();
-            if (routeIds != null && !routeIds.contains(routeId)) {
-                continue;
+        List<BusLocation> vehicles = new ArrayList<>();
+        for (BusLocation vehicle : snapshot) {
+            if (routeIds.contains(vehicle.getRouteId())) {
+                vehicles.add(vehicle);
             }
-
-            JsonNode attributes = vehicleNode.path("attributes");
-            String busId = vehicleNode.path("id").asText();
-            double latitude = attributes.path("latitude").asDouble();
-            double longitude = attributes.path("longitude").asDouble();
-            double speed = attributes.path("speed").asDouble(0.0);
-
-            vehicles.add(new BusLocation(busId, latitude, longitude, speed));
         }
-
         return vehicles;
     }
-
-    private double calculateDistanceKm(double lat1, double lon1,
-                                       double lat2, double lon2) {
-
-        final int EARTH_RADIUS_KM = 6371;
-
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1))
-                * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon / 2)
-                * Math.sin(dLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS_KM * c;
-    }
 }
-
@@ -0,0 +1,164 @@
+package com.smartstop.service;
+
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.Stop;
+import com.smartstop.domain.TransitSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes the transit snapshot as a gzipped binary file so a restarted
+ * instance can serve the last known data before the first live refresh.
+ */
+@Component
+public class SnapshotCheckpointStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotCheckpointStore.class);
+
+    private static final int MAGIC = 0x534D5354;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path checkpointPath;
+
+    public SnapshotCheckpointStore(
+            @Value("${smartstop.snapshot.checkpoint-path:data/transit-snapshot.bin}") String checkpointPath
+    ) {
+        this.checkpointPath = Paths.get(checkpointPath);
+    }
+
+    public Optional<TransitSnapshot> load() {
+        if (!Files.isRegularFile(checkpointPath)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(checkpointPath))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                log.warn("Ignoring checkpoint {} with unknown format", checkpointPath);
+                return Optional.empty();
+            }
+
+            Instant capturedAt = Instant.ofEpochMilli(in.readLong());
+
+            int vehicleCount = in.readInt();
+            List<BusLocation> vehicles = new ArrayList<>(vehicleCount);
+            for (int i = 0; i < vehicleCount; i++) {
+                vehicles.add(new BusLocation(
+                        in.readUTF(),
+                        readNullableString(in),
+                        in.readDouble(),
+                        in.readDouble(),
+                        in.readDouble()
+                ));
+            }
+
+            int stopCount = in.readInt();
+            Map<String, Stop> stops = new HashMap<>(stopCount * 2);
+            for (int i = 0; i < stopCount; i++) {
+                Stop stop = new Stop(in.readUTF(), in.readUTF(), in.readDouble(), in.readDouble());
+                stops.put(stop.getId(), stop);
+            }
+
+            int routeEntryCount = in.readInt();
+            Map<String, Set<String>> routeIdsByStop = new HashMap<>(routeEntryCount * 2);
+            for (int i = 0; i < routeEntryCount; i++) {
+                String stopId = in.readUTF();
+                int routeCount = in.readInt();
+                Set<String> routeIds = new HashSet<>(routeCount * 2);
+                for (int j = 0; j < routeCount; j++) {
+                    routeIds.add(in.readUTF());
+                }
+                routeIdsByStop.put(stopId, routeIds);
+            }
+
+            return Optional.of(new TransitSnapshot(capturedAt, vehicles, stops, routeIdsByStop));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read checkpoint {}: {}", checkpointPath, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    public void save(TransitSnapshot snapshot) throws IOException {
+        Path directory = checkpointPath.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+
+        // Write next to the target and rename so a crash never leaves a truncated checkpoint.
+        Path tempFile = Files.createTempFile(directory, checkpointPath.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(snapshot.getCapturedAt().toEpochMilli());
+
+                out.writeInt(snapshot.getVehicles().size());
+                for (BusLocation vehicle : snapshot.getVehicles()) {
+                    out.writeUTF(vehicle.getBusId());
+                    writeNullableString(out, vehicle.getRouteId());
+                    out.writeDouble(vehicle.getLatitude());
+                    out.writeDouble(vehicle.getLongitude());
+                    out.writeDouble(vehicle.getSpeed());
+                }
+
+                out.writeInt(snapshot.getStops().size());
+                for (Stop stop : snapshot.getStops().values()) {
+                    out.writeUTF(stop.getId());
+                    out.writeUTF(stop.getName());
+                    out.writeDouble(stop.getLatitude());
+                    out.writeDouble(stop.getLongitude());
+                }
+
+                out.writeInt(snapshot.getRouteIdsByStop().size());
+                for (Map.Entry<String, Set<String>> entry : snapshot.getRouteIdsByStop().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (String routeId : entry.getValue()) {
+                        out.writeUTF(routeId);
+                    }
+                }
+            }
+            Files.move(tempFile, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public Path getCheckpointPath() {
+        return checkpointPath;
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+}
@@ -12,12 +12,18 @@ public class StopService {
 
     private static final String MBTA_STOP_URL_TEMPLATE = "https://api-v3.mbta.com/stops/{stopId}";
     private final RestTemplate restTemplate;
+    private final TransitSnapshotService snapshotService;
 
-    public StopService(RestTemplate restTemplate) {
+    public StopService(RestTemplate restTemplate, TransitSnapshotService snapshotService) {
         this.restTemplate = restTemplate;
+        this.snapshotService = snapshotService;
     }
 
     public Stop getStopById(String stopId) {
+        return snapshotService.getStop(stopId, this::fetchStop);
+    }
+
+    private Stop fetchStop(String stopId) {
         try {
             JsonNode response = restTemplate.getForObject(MBTA_STOP_URL_TEMPLATE, JsonNode.class, stopId);
             if (response == null || !response.has("data")) {
@@ -0,0 +1,261 @@
+package com.smartstop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.Stop;
+import com.smartstop.domain.TransitSnapshot;
+import com.smartstop.event.VehicleSnapshotUpdatedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Holds the latest vehicle feed together with the stop and route metadata seen so far.
+ * The snapshot is checkpointed to disk periodically and reloaded at startup. Vehicle data is
+ * reported as stale while it comes from the checkpoint or when live refreshes have stopped
+ * landing, and positions older than {@code checkpoint-max-age-minutes} are not served at all.
+ */
+@Service
+public class TransitSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransitSnapshotService.class);
+
+    private static final String VEHICLES_URL = "https://api-v3.mbta.com/vehicles";
+
+    private final RestTemplate restTemplate;
+    private final SnapshotCheckpointStore checkpointStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean checkpointEnabled;
+    private final Duration checkpointMaxAge;
+    private final Duration staleAfter;
+
+    private final Map<String, Stop> stops = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> routeIdsByStop = new ConcurrentHashMap<>();
+    private final Object vehicleLoadLock = new Object();
+
+    private volatile List<BusLocation> vehicles = List.of();
+    private volatile Instant vehiclesCapturedAt;
+    private volatile boolean vehiclesLoaded;
+    private volatile String source = "none";
+    private volatile Long firstDataAvailableMillis;
+    private volatile Long firstLiveRefreshMillis;
+
+    public TransitSnapshotService(
+            RestTemplate restTemplate,
+            SnapshotCheckpointStore checkpointStore,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${smartstop.snapshot.checkpoint-enabled:true}") boolean checkpointEnabled,
+            @Value("${smartstop.snapshot.checkpoint-max-age-minutes:10}") long checkpointMaxAgeMinutes,
+            @Value("${smartstop.snapshot.stale-after-seconds:60}") long staleAfterSeconds
+    ) {
+        this.restTemplate = restTemplate;
+        this.checkpointStore = checkpointStore;
+        this.eventPublisher = eventPublisher;
+        this.checkpointEnabled = checkpointEnabled;
+        this.checkpointMaxAge = Duration.ofMinutes(checkpointMaxAgeMinutes);
+        this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+    }
+
+    // Runs during context refresh, i.e. before the embedded server starts accepting requests.
+    @PostConstruct
+    void restoreFromCheckpoint() {
+        if (!checkpointEnabled) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        checkpointStore.load().ifPresent(snapshot -> {
+            stops.putAll(snapshot.getStops());
+            // Older checkpoints may hold empty sets cached from failed route lookups; let those be refetched.
+            snapshot.getRouteIdsByStop().forEach((stopId, routeIds) -> {
+                if (!routeIds.isEmpty()) {
+                    routeIdsByStop.put(stopId, routeIds);
+                }
+            });
+
+            // Stop and route metadata barely changes, but old vehicle positions would produce wrong ETAs.
+            boolean vehiclesRestored = !isOlderThan(snapshot.getCapturedAt(), checkpointMaxAge);
+            if (vehiclesRestored) {
+                publishVehicles(snapshot.getVehicles(), snapshot.getCapturedAt(), "checkpoint");
+            }
+            log.info("Restored {} vehicles, {} stops and {} stop routes from {} captured at {} in {} ms",
+                    vehiclesRestored ? snapshot.getVehicles().size() : 0,
+                    snapshot.getStops().size(),
+                    routeIdsByStop.size(),
+                    checkpointStore.getCheckpointPath(),
+                    snapshot.getCapturedAt(),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        });
+    }
+
+    @Scheduled(
+            initialDelayString = "${smartstop.snapshot.vehicle-refresh-initial-delay-ms:0}",
+            fixedDelayString = "${smartstop.snapshot.vehicle-refresh-interval-ms:15000}",
+            scheduler = "vehicleRefreshScheduler"
+    )
+    public void scheduledVehicleRefresh() {
+        try {
+            refreshVehicles();
+        } catch (RestClientException e) {
+            log.warn("Vehicle refresh failed, keeping snapshot from {}: {}", vehiclesCapturedAt, e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${smartstop.snapshot.checkpoint-interval-ms:60000}",
+            fixedDelayString = "${smartstop.snapshot.checkpoint-interval-ms:60000}"
+    )
+    public void scheduledCheckpoint() {
+        writeCheckpoint();
+    }
+
+    @PreDestroy
+    void checkpointOnShutdown() {
+        writeCheckpoint();
+    }
+
+    public void refreshVehicles() {
+        JsonNode response = restTemplate.getForObject(VEHICLES_URL, JsonNode.class);
+        if (response == null || !response.has("data")) {
+            return;
+        }
+
+        List<BusLocation> latest = new ArrayList<>();
+        for (JsonNode vehicleNode : response.path("data")) {
+            String routeId = vehicleNode.path("relationships").path("route").path("data").path("id").asText();
+            JsonNode attributes = vehicleNode.path("attributes");
+            String busId = vehicleNode.path("id").asText();
+            double latitude = attributes.path("latitude").asDouble();
+            double longitude = attributes.path("longitude").asDouble();
+            double speed = attributes.path("speed").asDouble(0.0);
+
+            latest.add(new BusLocation(busId, routeId, latitude, longitude, speed));
+        }
+
+        List<BusLocation> snapshot = List.copyOf(latest);
+        Instant capturedAt = Instant.now();
+        publishVehicles(snapshot, capturedAt, "live");
+        eventPublisher.publishEvent(new VehicleSnapshotUpdatedEvent(snapshot, capturedAt));
+        if (firstLiveRefreshMillis == null) {
+            firstLiveRefreshMillis = millisSinceJvmStart();
+            log.info("First live vehicle refresh landed {} ms after JVM start", firstLiveRefreshMillis);
+        }
+    }
+
+    public List<BusLocation> getVehicles() {
+        if (!vehiclesLoaded) {
+            // Cold start without a checkpoint: let one request fetch while the others wait for it.
+            synchronized (vehicleLoadLock) {
+                if (!vehiclesLoaded) {
+                    refreshVehicles();
+                }
+            }
+        }
+
+        // Read in the reverse order of publishVehicles so a new list is never paired with an old timestamp.
+        List<BusLocation> current = vehicles;
+        Instant capturedAt = vehiclesCapturedAt;
+        if (capturedAt != null && isOlderThan(capturedAt, checkpointMaxAge)) {
+            // Whether restored or live, positions this old would produce wrong ETAs; the refresh job recovers.
+            return List.of();
+        }
+        return current;
+    }
+
+    public Stop getStop(String stopId, Function<String, Stop> loader) {
+        return getOrLoad(stops, stopId, loader);
+    }
+
+    public Set<String> getRouteIdsForStop(String stopId, Function<String, Set<String>> loader) {
+        return getOrLoad(routeIdsByStop, stopId, loader);
+    }
+
+    public boolean isStale() {
+        Instant capturedAt = vehiclesCapturedAt;
+        return !"live".equals(source) || capturedAt == null || isOlderThan(capturedAt, staleAfter);
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("stale", isStale());
+        status.put("source", source);
+        status.put("vehicleCount", vehicles.size());
+        status.put("vehiclesCapturedAt", vehiclesCapturedAt);
+        status.put("stopCount", stops.size());
+        status.put("stopRouteCount", routeIdsByStop.size());
+        status.put("firstDataAvailableMillis", firstDataAvailableMillis);
+        status.put("firstLiveRefreshMillis", firstLiveRefreshMillis);
+        return status;
+    }
+
+    private void publishVehicles(List<BusLocation> latest, Instant capturedAt, String latestSource) {
+        vehiclesCapturedAt = capturedAt;
+        source = latestSource;
+        vehicles = latest;
+        vehiclesLoaded = true;
+        if (firstDataAvailableMillis == null) {
+            firstDataAvailableMillis = millisSinceJvmStart();
+        }
+    }
+
+    private static boolean isOlderThan(Instant capturedAt, Duration maxAge) {
+        return capturedAt.plus(maxAge).isBefore(Instant.now());
+    }
+
+    private void writeCheckpoint() {
+        // Only persist data that came from a live refresh so a failed start never overwrites a good file.
+        if (!checkpointEnabled || firstLiveRefreshMillis == null) {
+            return;
+        }
+
+        try {
+            checkpointStore.save(new TransitSnapshot(
+                    vehiclesCapturedAt,
+                    vehicles,
+                    new HashMap<>(stops),
+                    new HashMap<>(routeIdsByStop)
+            ));
+        } catch (IOException e) {
+            log.warn("Failed to write checkpoint {}: {}", checkpointStore.getCheckpointPath(), e.getMessage());
+        }
+    }
+
+    // Loads outside computeIfAbsent so a slow upstream call never blocks other keys in the same bin.
+    private static <T> T getOrLoad(Map<String, T> cache, String key, Function<String, T> loader) {
+        T cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        T loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        T existing = cache.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static long millisSinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
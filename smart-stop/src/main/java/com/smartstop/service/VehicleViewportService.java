@@ -0,0 +1,215 @@
+package com.smartstop.service;
+
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.VehicleCluster;
+import com.smartstop.dto.VehicleViewportResponse;
+import com.smartstop.event.VehicleSnapshotUpdatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers map viewport queries against the current vehicle snapshot. Dense viewports are
+ * answered with grid clusters, which are built once per snapshot and zoom level and then
+ * shared by every request until the next vehicle refresh replaces the snapshot. Only a refresh
+ * moves the cache forward, so a slow request still holding an older snapshot cannot evict it.
+ *
+ * <p>A clustered response returns every grid cell that overlaps the viewport, so each vehicle
+ * inside the viewport is counted by exactly one cluster. Cells on the edge may also count
+ * vehicles just outside it.
+ */
+@Service
+public class VehicleViewportService {
+
+    private final TransitSnapshotService snapshotService;
+    private final int clusterThreshold;
+    private final int cellsPerTile;
+
+    private volatile ClusterCache clusterCache = new ClusterCache(List.of(), Instant.MIN);
+
+    public VehicleViewportService(
+            TransitSnapshotService snapshotService,
+            @Value("${smartstop.viewport.cluster-threshold:200}") int clusterThreshold,
+            @Value("${smartstop.viewport.cells-per-tile:4}") int cellsPerTile
+    ) {
+        this.snapshotService = snapshotService;
+        this.clusterThreshold = clusterThreshold;
+        this.cellsPerTile = cellsPerTile;
+    }
+
+    public VehicleViewportResponse findInViewport(
+            double minLat,
+            double minLon,
+            double maxLat,
+            double maxLon,
+            int zoom
+    ) {
+        return findInViewport(snapshotService.getVehicles(), new Viewport(minLat, minLon, maxLat, maxLon), zoom);
+    }
+
+    @EventListener
+    public synchronized void onVehicleSnapshotUpdated(VehicleSnapshotUpdatedEvent event) {
+        if (event.getCapturedAt().isAfter(clusterCache.capturedAt)) {
+            clusterCache = new ClusterCache(event.getVehicles(), event.getCapturedAt());
+        }
+    }
+
+    VehicleViewportResponse findInViewport(List<BusLocation> snapshot, Viewport viewport, int zoom) {
+        List<BusLocation> visible = new ArrayList<>();
+        for (BusLocation vehicle : snapshot) {
+            if (viewport.contains(vehicle.getLatitude(), vehicle.getLongitude())) {
+                visible.add(vehicle);
+            }
+        }
+
+        if (visible.size() <= clusterThreshold) {
+            return new VehicleViewportResponse(visible.size(), false, visible, List.of());
+        }
+
+        ClusterGrid grid = gridFor(snapshot, zoom);
+        long minRow = grid.row(viewport.minLat);
+        long maxRow = grid.row(viewport.maxLat);
+        long minColumn = grid.column(viewport.minLon);
+        long maxColumn = grid.column(viewport.maxLon);
+        boolean wrapsAntimeridian = viewport.minLon > viewport.maxLon;
+
+        List<VehicleCluster> clusters = new ArrayList<>();
+        for (GridCell cell : grid.cells) {
+            if (cell.row < minRow || cell.row > maxRow) {
+                continue;
+            }
+            boolean columnInRange = wrapsAntimeridian
+                    ? cell.column >= minColumn || cell.column <= maxColumn
+                    : cell.column >= minColumn && cell.column <= maxColumn;
+            if (columnInRange) {
+                clusters.add(cell.cluster);
+            }
+        }
+        return new VehicleViewportResponse(visible.size(), true, List.of(), clusters);
+    }
+
+    private ClusterGrid gridFor(List<BusLocation> snapshot, int zoom) {
+        ClusterCache cache = clusterCache;
+        // The snapshot list is replaced, never mutated, on refresh, so identity tells us it is the cached one.
+        if (cache.snapshot != snapshot) {
+            return buildGrid(snapshot, zoom);
+        }
+        return cache.gridsByZoom.computeIfAbsent(zoom, z -> buildGrid(snapshot, z));
+    }
+
+    private ClusterGrid buildGrid(List<BusLocation> snapshot, int zoom) {
+        // A 256px map tile spans 360 / 2^zoom degrees of longitude; split each tile into a few cells.
+        ClusterGrid grid = new ClusterGrid(360.0 / ((1L << zoom) * cellsPerTile));
+
+        Map<Long, CellSum> sums = new HashMap<>();
+        for (BusLocation vehicle : snapshot) {
+            long row = grid.row(vehicle.getLatitude());
+            long column = grid.column(vehicle.getLongitude());
+            CellSum sum = sums.computeIfAbsent(row * grid.columns + column, key -> new CellSum(row, column));
+            sum.count++;
+            sum.latitudeSum += vehicle.getLatitude();
+            sum.longitudeSum += vehicle.getLongitude();
+        }
+
+        for (CellSum sum : sums.values()) {
+            grid.cells.add(new GridCell(
+                    sum.row,
+                    sum.column,
+                    new VehicleCluster(sum.count, sum.latitudeSum / sum.count, sum.longitudeSum / sum.count)
+            ));
+        }
+        return grid;
+    }
+
+    private static final class ClusterCache {
+
+        private final List<BusLocation> snapshot;
+        private final Instant capturedAt;
+        private final Map<Integer, ClusterGrid> gridsByZoom = new ConcurrentHashMap<>();
+
+        private ClusterCache(List<BusLocation> snapshot, Instant capturedAt) {
+            this.snapshot = snapshot;
+            this.capturedAt = capturedAt;
+        }
+    }
+
+    private static final class ClusterGrid {
+
+        private final double cellSizeDegrees;
+        private final long columns;
+        private final List<GridCell> cells = new ArrayList<>();
+
+        private ClusterGrid(double cellSizeDegrees) {
+            this.cellSizeDegrees = cellSizeDegrees;
+            this.columns = (long) Math.ceil(360.0 / cellSizeDegrees) + 1;
+        }
+
+        private long row(double latitude) {
+            return (long) Math.floor((latitude + 90.0) / cellSizeDegrees);
+        }
+
+        private long column(double longitude) {
+            return (long) Math.floor((longitude + 180.0) / cellSizeDegrees);
+        }
+    }
+
+    private static final class CellSum {
+
+        private final long row;
+        private final long column;
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+
+        private CellSum(long row, long column) {
+            this.row = row;
+            this.column = column;
+        }
+    }
+
+    private static final class GridCell {
+
+        private final long row;
+        private final long column;
+        private final VehicleCluster cluster;
+
+        private GridCell(long row, long column, VehicleCluster cluster) {
+            this.row = row;
+            this.column = column;
+            this.cluster = cluster;
+        }
+    }
+
+    static final class Viewport {
+
+        private final double minLat;
+        private final double maxLat;
+        private final double minLon;
+        private final double maxLon;
+
+        Viewport(double minLat, double minLon, double maxLat, double maxLon) {
+            this.minLat = Math.min(minLat, maxLat);
+            this.maxLat = Math.max(minLat, maxLat);
+            this.minLon = minLon;
+            this.maxLon = maxLon;
+        }
+
+        boolean contains(double latitude, double longitude) {
+            if (latitude < minLat || latitude > maxLat) {
+                return false;
+            }
+            // minLon > maxLon means the viewport crosses the antimeridian.
+            if (minLon <= maxLon) {
+                return longitude >= minLon && longitude <= maxLon;
+            }
+            return longitude >= minLon || longitude <= maxLon;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartstop.util;
+
+public final class ArrivalTimeEstimator {
+
+    private ArrivalTimeEstimator() {
+    }
+
+    public static long estimateArrivalSeconds(
+            double stopLatitude,
+            double stopLongitude,
+            double vehicleLatitude,
+            double vehicleLongitude
+    ) {
+        double distanceKm = DistanceCalculator.calculateDistanceMeters(
+                stopLatitude,
+                stopLongitude,
+                vehicleLatitude,
+                vehicleLongitude
+        ) / 1000.0;
+
+        double speedKmh;
+        if (distanceKm < 1) {
+            speedKmh = 20;
+        } else if (distanceKm < 5) {
+            speedKmh = 30;
+        } else {
+            speedKmh = 40;
+        }
+
+        long arrivalSeconds = Math.round((distanceKm / speedKmh) * 3600);
+        return Math.max(arrivalSeconds, 1);
+    }
+}
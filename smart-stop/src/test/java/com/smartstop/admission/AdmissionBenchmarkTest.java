@@ -0,0 +1,99 @@
+package com.smartstop.admission;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timing harness for the admission hot path; the bound is generous so it only catches a
+ * lock or allocation sneaking into a per-request call. Excluded from the default test run;
+ * use {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AdmissionBenchmarkTest {
+
+    private static final int CLIENTS = 10_000;
+    private static final int OPERATIONS = 2_000_000;
+    private static final int THREADS = 8;
+    private static final double MAX_NANOS_PER_OPERATION = 5_000;
+
+    @Test
+    void clientRateLimiterTryAcquire() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(1_000_000, 1_000, CLIENTS);
+        String[] keys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+
+        assertFasterThanBound("ClientRateLimiter.tryAcquire", i -> limiter.tryAcquire(keys[i % CLIENTS]));
+    }
+
+    @Test
+    void concurrencyLimiterTryAcquire() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1_000, 500, 500);
+
+        Operation acquireAndRelease = i -> {
+            boolean lowPriority = (i & 3) == 0;
+            if (limiter.tryAcquire(lowPriority)) {
+                limiter.release(lowPriority, 1_000_000);
+            }
+        };
+        assertFasterThanBound("ConcurrencyLimiter.tryAcquire+release", acquireAndRelease);
+    }
+
+    private static void assertFasterThanBound(String name, Operation operation) throws Exception {
+        double singleThreaded = measure(1, operation);
+        double multiThreaded = measure(THREADS, operation);
+        assertTrue(singleThreaded < MAX_NANOS_PER_OPERATION, name + " single-threaded " + singleThreaded + " ns/op");
+        assertTrue(multiThreaded < MAX_NANOS_PER_OPERATION, name + " multi-threaded " + multiThreaded + " ns/op");
+    }
+
+    // Runs one warm-up pass, then returns the average nanoseconds per operation on each thread.
+    private static double measure(int threads, Operation operation) throws Exception {
+        run(threads, operation);
+        return run(threads, operation);
+    }
+
+    private static double run(int threads, Operation operation) throws Exception {
+        int operationsPerThread = OPERATIONS / threads;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * operationsPerThread;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    long startNanos = System.nanoTime();
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        operation.run(offset + i);
+                    }
+                    return System.nanoTime() - startNanos;
+                }));
+            }
+            start.countDown();
+
+            long totalNanos = 0;
+            for (Future<Long> result : results) {
+                totalNanos += result.get(60, TimeUnit.SECONDS);
+            }
+            return (double) totalNanos / threads / operationsPerThread;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(int index);
+    }
+}
@@ -0,0 +1,104 @@
+package com.smartstop.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ClientRateLimiterTest {
+
+    // 10 requests per second with a burst of 20: one token every 100 ms, two seconds of tolerance.
+    private static final long INTERVAL_NANOS = 100_000_000L;
+    private final ClientRateLimiter limiter = new ClientRateLimiter(10, 20, 3);
+    private final long start = System.nanoTime();
+
+    @Test
+    void admitsFullBurstThenRejectsWithWaitOfOneInterval() {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, limiter.tryAcquire("ip:a", start), "request " + i);
+        }
+
+        assertEquals(INTERVAL_NANOS, limiter.tryAcquire("ip:a", start));
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        drain("ip:a", start);
+
+        assertEquals(INTERVAL_NANOS / 2, limiter.tryAcquire("ip:a", start + INTERVAL_NANOS / 2));
+        assertEquals(0, limiter.tryAcquire("ip:a", start + INTERVAL_NANOS));
+        assertEquals(INTERVAL_NANOS, limiter.tryAcquire("ip:a", start + INTERVAL_NANOS));
+
+        long threeIntervalsLater = start + 4 * INTERVAL_NANOS;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("ip:a", threeIntervalsLater), "request " + i);
+        }
+        assertEquals(INTERVAL_NANOS, limiter.tryAcquire("ip:a", threeIntervalsLater));
+    }
+
+    @Test
+    void clientsHaveIndependentBuckets() {
+        drain("ip:a", start);
+
+        assertEquals(0, limiter.tryAcquire("ip:b", start));
+    }
+
+    @Test
+    void idleClientsArePurgedOnceTheirBucketIsFull() {
+        drain("ip:a", start);
+        limiter.tryAcquire("ip:b", start);
+
+        limiter.purgeIdleClients(start + INTERVAL_NANOS / 2);
+        assertEquals(2, limiter.getTrackedClientCount());
+
+        limiter.purgeIdleClients(start + 20 * INTERVAL_NANOS);
+        assertEquals(0, limiter.getTrackedClientCount());
+    }
+
+    @Test
+    void refusesNewClientsWhileTableIsFullOfActiveBuckets() {
+        limiter.tryAcquire("ip:a", start);
+        limiter.tryAcquire("ip:b", start);
+        limiter.tryAcquire("ip:c", start);
+
+        assertEquals(INTERVAL_NANOS, limiter.tryAcquire("ip:d", start));
+        assertEquals(INTERVAL_NANOS, limiter.tryAcquire("ip:d", start + INTERVAL_NANOS / 2));
+        assertEquals(3, limiter.getTrackedClientCount());
+        assertEquals(2, limiter.getRefusedTableFullCount());
+        assertEquals(0, limiter.tryAcquire("ip:a", start));
+    }
+
+    @Test
+    void fullTablePurgesIdleBucketsBeforeRefusing() {
+        limiter.tryAcquire("ip:a", start);
+        limiter.tryAcquire("ip:b", start);
+        drain("ip:c", start);
+
+        // a and b are idle again after one interval; c spent its burst and stays busy for two seconds.
+        assertEquals(0, limiter.tryAcquire("ip:d", start + 19 * INTERVAL_NANOS));
+        assertEquals(2, limiter.getTrackedClientCount());
+        assertEquals(0, limiter.getRefusedTableFullCount());
+    }
+
+    @Test
+    void keysIpv6ClientsByPrefix() {
+        assertEquals("ip:203.0.113.7", ClientRateLimiter.clientKeyForAddress("203.0.113.7"));
+        assertEquals(
+                ClientRateLimiter.clientKeyForAddress("2001:db8:1:2::1"),
+                ClientRateLimiter.clientKeyForAddress("2001:db8:1:2:ffff:eeee:dddd:cccc")
+        );
+        assertEquals("ip6:20010db800010002/64", ClientRateLimiter.clientKeyForAddress("2001:db8:1:2::1"));
+        assertNotEquals(
+                ClientRateLimiter.clientKeyForAddress("2001:db8:1:2::1"),
+                ClientRateLimiter.clientKeyForAddress("2001:db8:1:3::1")
+        );
+        assertEquals("ip:203.0.113.7", ClientRateLimiter.clientKeyForAddress("::ffff:203.0.113.7"));
+    }
+
+    private void drain(String clientKey, long now) {
+        while (limiter.tryAcquire(clientKey, now) == 0) {
+            // Spend the burst.
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.smartstop.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimiterTest {
+
+    private static final long FAST_NANOS = 10_000_000L;
+    private static final long SLOW_NANOS = 2_000_000_000L;
+
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(5, 2, 500);
+
+    @Test
+    void lowPriorityIsCappedByItsOwnInFlightCount() {
+        assertTrue(limiter.tryAcquire(false));
+        assertTrue(limiter.tryAcquire(true));
+        assertTrue(limiter.tryAcquire(true));
+
+        assertFalse(limiter.tryAcquire(true));
+        assertEquals(2, limiter.getLowPriorityInFlight());
+        assertEquals(3, limiter.getInFlight());
+        assertEquals(1, limiter.getShedLowPriorityCount());
+
+        limiter.release(true, FAST_NANOS);
+        assertTrue(limiter.tryAcquire(true));
+    }
+
+    @Test
+    void highPriorityIsNotLimitedByLowPriorityCap() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(false), "request " + i);
+        }
+
+        assertFalse(limiter.tryAcquire(false));
+        assertEquals(1, limiter.getShedHighPriorityCount());
+        assertEquals(0, limiter.getShedLowPriorityCount());
+    }
+
+    @Test
+    void lowPriorityMustAlsoFitGlobalLimit() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(false);
+        }
+
+        assertFalse(limiter.tryAcquire(true));
+        assertEquals(0, limiter.getLowPriorityInFlight());
+        assertEquals(5, limiter.getInFlight());
+    }
+
+    @Test
+    void latencyAboveTargetCutsLowPriorityToOneSlot() {
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire(false);
+            limiter.release(false, SLOW_NANOS);
+        }
+        assertTrue(limiter.isLatencyAboveTarget());
+
+        assertTrue(limiter.tryAcquire(true));
+        assertFalse(limiter.tryAcquire(true));
+        assertTrue(limiter.tryAcquire(false));
+    }
+}
@@ -0,0 +1,133 @@
+package com.smartstop.service;
+
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.Stop;
+import com.smartstop.dto.ArrivalAlert;
+import com.smartstop.event.VehicleSnapshotUpdatedEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timing harness for a feed tick with 100k active subscriptions: 200 routes with 50 subscribed
+ * stops each, 10 subscriptions per stop, and 10 vehicles per route. The bound is loose enough
+ * for a shared CI runner and only catches order-of-magnitude regressions. Excluded from the
+ * default test run; use {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ArrivalAlertEngineBenchmarkTest {
+
+    private static final int ROUTES = 200;
+    private static final int STOPS_PER_ROUTE = 50;
+    private static final int SUBSCRIPTIONS_PER_STOP = 10;
+    private static final int VEHICLES_PER_ROUTE = 10;
+    private static final int WARMUP_TICKS = 20;
+    private static final int MEASURED_TICKS = 50;
+
+    private final Random random = new Random(42);
+    private final Map<String, Stop> stops = new HashMap<>();
+    private long alertCount;
+
+    private final ArrivalAlertEngine engine = new ArrivalAlertEngine(
+            new StopService(null, null) {
+                @Override
+                public Stop getStopById(String stopId) {
+                    return stops.get(stopId);
+                }
+            },
+            new ArrivalService(null, null, null) {
+                @Override
+                public Set<String> getRouteIdsForStop(String stopId) {
+                    return Set.of("route-" + stopId.substring(0, stopId.indexOf('-')));
+                }
+            },
+            new ArrivalAlertPublisher(1, 16, 16) {
+                @Override
+                public void publish(List<ArrivalAlert> fired) {
+                    alertCount += fired.size();
+                }
+            },
+            ROUTES * STOPS_PER_ROUTE * SUBSCRIPTIONS_PER_STOP,
+            120,
+            300
+    );
+
+    @Test
+    void tickWithHundredThousandSubscriptions() {
+        for (int route = 0; route < ROUTES; route++) {
+            for (int stop = 0; stop < STOPS_PER_ROUTE; stop++) {
+                String stopId = route + "-" + stop;
+                stops.put(stopId, new Stop(stopId, stopId, randomLatitude(), randomLongitude()));
+                for (int i = 0; i < SUBSCRIPTIONS_PER_STOP; i++) {
+                    engine.subscribe(stopId, "route-" + route, 1 + random.nextInt(30));
+                }
+            }
+        }
+        assertEquals(100_000, engine.getStats().get("activeSubscriptions"));
+
+        List<BusLocation> vehicles = new ArrayList<>();
+        for (int route = 0; route < ROUTES; route++) {
+            for (int i = 0; i < VEHICLES_PER_ROUTE; i++) {
+                vehicles.add(new BusLocation("v" + route + "-" + i, "route-" + route,
+                        randomLatitude(), randomLongitude(), 0));
+            }
+        }
+        // The first tick activates every subscription against the full snapshot.
+        timeTick(vehicles);
+        assertTrue(alertCount > 0);
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            vehicles = moveAll(vehicles);
+            timeTick(vehicles);
+        }
+
+        long allMovedTotal = 0;
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            vehicles = moveAll(vehicles);
+            allMovedTotal += timeTick(vehicles);
+        }
+
+        // A tick must finish well inside the 15 s refresh interval; 250 ms leaves room for slow runners.
+        double allMovedAverageMillis = allMovedTotal / (MEASURED_TICKS * 1_000_000.0);
+        assertTrue(allMovedAverageMillis < 250, "average tick took " + allMovedAverageMillis + " ms");
+    }
+
+    private long timeTick(List<BusLocation> vehicles) {
+        long start = System.nanoTime();
+        engine.evaluateTick(new VehicleSnapshotUpdatedEvent(vehicles, Instant.now()));
+        return System.nanoTime() - start;
+    }
+
+    private List<BusLocation> moveAll(List<BusLocation> vehicles) {
+        List<BusLocation> moved = new ArrayList<>(vehicles.size());
+        for (BusLocation vehicle : vehicles) {
+            moved.add(new BusLocation(
+                    vehicle.getBusId(),
+                    vehicle.getRouteId(),
+                    vehicle.getLatitude() + (random.nextDouble() - 0.5) * 0.004,
+                    vehicle.getLongitude() + (random.nextDouble() - 0.5) * 0.004,
+                    vehicle.getSpeed()
+            ));
+        }
+        return moved;
+    }
+
+    // Greater Boston, roughly 40 x 40 km.
+    private double randomLatitude() {
+        return 42.20 + random.nextDouble() * 0.36;
+    }
+
+    private double randomLongitude() {
+        return -71.30 + random.nextDouble() * 0.48;
+    }
+}
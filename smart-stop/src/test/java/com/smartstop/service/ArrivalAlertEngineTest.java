@@ -0,0 +1,223 @@
+package com.smartstop.service;
+
+import com.smartstop.domain.ArrivalSubscription;
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.Stop;
+import com.smartstop.dto.ArrivalAlert;
+import com.smartstop.event.VehicleSnapshotUpdatedEvent;
+import com.smartstop.exception.RouteNotServingStopException;
+import com.smartstop.exception.SubscriptionLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArrivalAlertEngineTest {
+
+    private static final Stop STOP = new Stop("110", "Harvard", 42.3734, -71.1189);
+    // One degree of latitude on the 6371 km sphere used by DistanceCalculator.
+    private static final double KM_PER_DEGREE = 6371.0 * Math.PI / 180.0;
+
+    private final List<ArrivalAlert> alerts = new ArrayList<>();
+    private volatile String publishingThread;
+    private final ArrivalAlertEngine engine = new ArrivalAlertEngine(
+            new StopService(null, null) {
+                @Override
+                public Stop getStopById(String stopId) {
+                    return STOP;
+                }
+            },
+            new ArrivalService(null, null, null) {
+                @Override
+                public Set<String> getRouteIdsForStop(String stopId) {
+                    return Set.of("1", "66");
+                }
+            },
+            new ArrivalAlertPublisher(1, 16, 16) {
+                @Override
+                public void publish(List<ArrivalAlert> fired) {
+                    publishingThread = Thread.currentThread().getName();
+                    alerts.addAll(fired);
+                }
+            },
+            3,
+            120,
+            300
+    );
+
+    @Test
+    void firesOnceWhenApproachingVehicleCrossesThreshold() {
+        engine.subscribe("110", "1", 3);
+
+        tick(bus("y1", 3.0));
+        tick(bus("y1", 2.0));
+        assertEquals(0, alerts.size());
+
+        tick(bus("y1", 1.4));
+        tick(bus("y1", 1.2));
+        tick(bus("y1", 0.5));
+
+        assertEquals(1, alerts.size());
+        assertEquals("y1", alerts.get(0).getBusId());
+        assertEquals(168, alerts.get(0).getEstimatedArrivalSeconds());
+    }
+
+    @Test
+    void jitterAroundThresholdDoesNotRefire() {
+        engine.subscribe("110", "1", 3);
+
+        tick(bus("y1", kmForEta(200)));
+        tick(bus("y1", kmForEta(179)));
+        tick(bus("y1", kmForEta(181)));
+        tick(bus("y1", kmForEta(179)));
+        tick(bus("y1", kmForEta(181)));
+
+        assertEquals(1, alerts.size());
+    }
+
+    @Test
+    void etaModelStepAtFiveKilometresDoesNotRefire() {
+        engine.subscribe("110", "1", 8);
+        engine.subscribe("110", "1", 9);
+
+        tick(bus("y1", 7.0));
+        tick(bus("y1", 5.01));
+        assertEquals(2, alerts.size());
+
+        // Crossing 5 km switches the model from 40 to 30 km/h, so the ETA jumps from ~451 s to ~599 s.
+        tick(bus("y1", 4.99));
+        tick(bus("y1", 4.0));
+
+        assertEquals(2, alerts.size());
+    }
+
+    @Test
+    void subscriptionCreatedWhileVehicleIsInsideFiresOnNextTick() {
+        tick(bus("y1", 1.0));
+
+        engine.subscribe("110", "1", 5);
+        tick(bus("y1", 1.0));
+        tick(bus("y1", 0.9));
+
+        assertEquals(1, alerts.size());
+    }
+
+    @Test
+    void vehicleSeenForFirstTimeInsideThresholdFires() {
+        engine.subscribe("110", "1", 5);
+        tick();
+
+        tick(bus("y1", 0.5));
+
+        assertEquals(1, alerts.size());
+    }
+
+    @Test
+    void rearmsAfterVehicleMovesAwayFromStop() {
+        engine.subscribe("110", "1", 3);
+
+        tick(bus("y1", 4.0));
+        tick(bus("y1", 1.0));
+        tick(bus("y1", 4.0));
+        tick(bus("y1", 1.0));
+
+        assertEquals(2, alerts.size());
+    }
+
+    @Test
+    void ignoresVehiclesOnOtherRoutes() {
+        engine.subscribe("110", "1", 5);
+
+        tick(new BusLocation("y2", "66", latitudeAt(4.0), STOP.getLongitude(), 0));
+        tick(new BusLocation("y2", "66", latitudeAt(0.5), STOP.getLongitude(), 0));
+
+        assertEquals(0, alerts.size());
+    }
+
+    @Test
+    void unsubscribedSubscriptionDoesNotFire() {
+        ArrivalSubscription subscription = engine.subscribe("110", "1", 5);
+        tick(bus("y1", 4.0));
+
+        engine.unsubscribe(subscription.getId());
+        tick(bus("y1", 0.5));
+
+        assertEquals(0, alerts.size());
+        assertEquals(0, engine.getStats().get("activeSubscriptions"));
+    }
+
+    @Test
+    void rejectsSubscriptionsBeyondLimit() {
+        engine.subscribe("110", "1", 1);
+        engine.subscribe("110", "1", 2);
+        engine.subscribe("110", "1", 3);
+
+        assertThrows(SubscriptionLimitExceededException.class, () -> engine.subscribe("110", "1", 4));
+    }
+
+    @Test
+    void rejectsRouteThatDoesNotServeStop() {
+        assertThrows(RouteNotServingStopException.class, () -> engine.subscribe("110", "Red", 5));
+
+        assertEquals(0, engine.getStats().get("activeSubscriptions"));
+    }
+
+    @Test
+    void dropsRouteFromIndexOnceItsLastSubscriptionIsGone() {
+        ArrivalSubscription first = engine.subscribe("110", "1", 5);
+        ArrivalSubscription second = engine.subscribe("110", "66", 5);
+        tick();
+        assertEquals(2, engine.getIndexedRouteCount());
+
+        engine.unsubscribe(first.getId());
+        engine.unsubscribe(second.getId());
+
+        assertEquals(0, engine.getIndexedRouteCount());
+    }
+
+    @Test
+    void subscriptionRemovedBeforeActivationLeavesNoIndexEntry() {
+        ArrivalSubscription subscription = engine.subscribe("110", "1", 5);
+        engine.unsubscribe(subscription.getId());
+        tick(bus("y1", 0.5));
+
+        assertEquals(0, engine.getIndexedRouteCount());
+        assertEquals(0, alerts.size());
+    }
+
+    @Test
+    void snapshotEventIsEvaluatedOffThePublishingThread() throws Exception {
+        engine.subscribe("110", "1", 5);
+
+        engine.onVehicleSnapshotUpdated(new VehicleSnapshotUpdatedEvent(List.of(bus("y1", 0.5)), Instant.now()));
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (engine.getStats().get("alertsFired").equals(0L) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1L, engine.getStats().get("alertsFired"));
+        assertEquals("arrival-alert-tick", publishingThread);
+    }
+
+    private void tick(BusLocation... vehicles) {
+        engine.evaluateTick(new VehicleSnapshotUpdatedEvent(List.of(vehicles), Instant.now()));
+    }
+
+    private static BusLocation bus(String busId, double kmFromStop) {
+        return new BusLocation(busId, "1", latitudeAt(kmFromStop), STOP.getLongitude(), 0);
+    }
+
+    private static double latitudeAt(double kmFromStop) {
+        return STOP.getLatitude() + kmFromStop / KM_PER_DEGREE;
+    }
+
+    // Inverse of the 30 km/h band (1-5 km) of ArrivalTimeEstimator.
+    private static double kmForEta(long etaSeconds) {
+        return etaSeconds * 30.0 / 3600.0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartstop.service;
+
+import com.smartstop.dto.ArrivalAlert;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ArrivalAlertPublisherTest {
+
+    private final ArrivalAlertPublisher publisher = new ArrivalAlertPublisher(1, 16, 2);
+
+    @Test
+    void holdsAlertsFiredBeforeStreamIsOpened() throws Exception {
+        publisher.register("s1");
+        publisher.publish(List.of(alert("s1")));
+        assertEquals(0, publisher.getDeliveredCount());
+
+        publisher.connect("s1", 60_000);
+
+        awaitDelivered(1);
+        assertEquals(0, publisher.getUndeliveredCount());
+        assertEquals(1, publisher.getConnectedCount());
+    }
+
+    @Test
+    void dropsAlertsBeyondMailboxCapacity() {
+        publisher.register("s1");
+
+        publisher.publish(List.of(alert("s1"), alert("s1"), alert("s1")));
+
+        assertEquals(1, publisher.getUndeliveredCount());
+    }
+
+    @Test
+    void countsAlertsForUnknownOrRemovedSubscriptionsAsUndelivered() {
+        publisher.publish(List.of(alert("unknown")));
+        publisher.register("s1");
+        publisher.publish(List.of(alert("s1")));
+
+        publisher.unregister("s1");
+
+        assertEquals(2, publisher.getUndeliveredCount());
+        assertEquals(0, publisher.getConnectedCount());
+    }
+
+    private void awaitDelivered(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (publisher.getDeliveredCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, publisher.getDeliveredCount());
+    }
+
+    private static ArrivalAlert alert(String subscriptionId) {
+        return new ArrivalAlert(subscriptionId, "y1", "110", "1", 120, LocalDateTime.now().plusSeconds(120));
+    }
+}
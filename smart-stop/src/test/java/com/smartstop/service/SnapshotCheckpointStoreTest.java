@@ -0,0 +1,119 @@
+package com.smartstop.service;
+
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.Stop;
+import com.smartstop.domain.TransitSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotCheckpointStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripsVehiclesStopsAndRoutes() throws Exception {
+        SnapshotCheckpointStore store = new SnapshotCheckpointStore(tempDir.resolve("snapshot.bin").toString());
+        Instant capturedAt = Instant.ofEpochMilli(1_700_000_000_000L);
+        TransitSnapshot snapshot = new TransitSnapshot(
+                capturedAt,
+                List.of(
+                        new BusLocation("y1234", "1", 42.35, -71.06, 7.5),
+                        new BusLocation("y5678", null, 42.36, -71.05, 0.0)
+                ),
+                Map.of("110", new Stop("110", "Massachusetts Ave @ Holyoke St", 42.3726, -71.1182)),
+                Map.of("110", Set.of("1", "CT1"))
+        );
+
+        store.save(snapshot);
+        Optional<TransitSnapshot> loaded = store.load();
+
+        assertTrue(loaded.isPresent());
+        TransitSnapshot restored = loaded.get();
+        assertEquals(capturedAt, restored.getCapturedAt());
+        assertEquals(2, restored.getVehicles().size());
+
+        BusLocation first = restored.getVehicles().get(0);
+        assertEquals("y1234", first.getBusId());
+        assertEquals("1", first.getRouteId());
+        assertEquals(42.35, first.getLatitude(), 0.0);
+        assertEquals(-71.06, first.getLongitude(), 0.0);
+        assertEquals(7.5, first.getSpeed(), 0.0);
+        assertNull(restored.getVehicles().get(1).getRouteId());
+
+        Stop stop = restored.getStops().get("110");
+        assertEquals("Massachusetts Ave @ Holyoke St", stop.getName());
+        assertEquals(42.3726, stop.getLatitude(), 0.0);
+        assertEquals(Set.of("1", "CT1"), restored.getRouteIdsByStop().get("110"));
+    }
+
+    @Test
+    void saveReplacesPreviousCheckpoint() throws Exception {
+        SnapshotCheckpointStore store = new SnapshotCheckpointStore(tempDir.resolve("snapshot.bin").toString());
+        store.save(new TransitSnapshot(Instant.ofEpochMilli(1), List.of(
+                new BusLocation("old", "1", 1, 1, 0)), Map.of(), Map.of()));
+        store.save(new TransitSnapshot(Instant.ofEpochMilli(2), List.of(), Map.of(), Map.of()));
+
+        TransitSnapshot restored = store.load().orElseThrow();
+        assertEquals(Instant.ofEpochMilli(2), restored.getCapturedAt());
+        assertTrue(restored.getVehicles().isEmpty());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count(), "temporary files must not be left behind");
+        }
+    }
+
+    @Test
+    void missingFileLoadsNothing() {
+        SnapshotCheckpointStore store = new SnapshotCheckpointStore(tempDir.resolve("absent.bin").toString());
+
+        assertFalse(store.load().isPresent());
+    }
+
+    @Test
+    void corruptFileLoadsNothing() throws Exception {
+        Path path = tempDir.resolve("snapshot.bin");
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertFalse(new SnapshotCheckpointStore(path.toString()).load().isPresent());
+    }
+
+    @Test
+    void truncatedFileLoadsNothing() throws Exception {
+        Path path = tempDir.resolve("snapshot.bin");
+        SnapshotCheckpointStore store = new SnapshotCheckpointStore(path.toString());
+        store.save(new TransitSnapshot(Instant.now(), List.of(
+                new BusLocation("y1234", "1", 42.35, -71.06, 7.5)), Map.of(), Map.of()));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertFalse(store.load().isPresent());
+    }
+
+    @Test
+    void unknownFormatLoadsNothing() throws Exception {
+        Path path = tempDir.resolve("snapshot.bin");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(0x12345678);
+            out.writeInt(1);
+            out.writeLong(0);
+        }
+
+        assertFalse(new SnapshotCheckpointStore(path.toString()).load().isPresent());
+    }
+}
@@ -0,0 +1,124 @@
+package com.smartstop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.Stop;
+import com.smartstop.domain.TransitSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransitSnapshotServiceTest {
+
+    private static final String VEHICLES_JSON = """
+            {"data": [{"id": "y1234",
+                       "attributes": {"latitude": 42.35, "longitude": -71.06, "speed": 7.5},
+                       "relationships": {"route": {"data": {"id": "1"}}}}]}
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void restoresRecentCheckpointAsStale() throws Exception {
+        TransitSnapshotService service = restoreFrom(Instant.now().minus(Duration.ofMinutes(2)));
+
+        Map<String, Object> status = service.getStatus();
+        assertEquals(1, status.get("vehicleCount"));
+        assertEquals("checkpoint", status.get("source"));
+        assertTrue(service.isStale());
+        assertEquals("y1234", service.getVehicles().get(0).getBusId());
+    }
+
+    @Test
+    void restoresOnlyMetadataFromOldCheckpoint() throws Exception {
+        TransitSnapshotService service = restoreFrom(Instant.now().minus(Duration.ofHours(3)));
+
+        Map<String, Object> status = service.getStatus();
+        assertEquals(0, status.get("vehicleCount"));
+        assertEquals("none", status.get("source"));
+        assertEquals(1, status.get("stopCount"));
+        assertEquals("Harvard", service.getStop("110", this::failLoad).getName());
+        assertEquals(Set.of("1"), service.getRouteIdsForStop("110", this::failLoad));
+    }
+
+    @Test
+    void skipsEmptyRouteSetsFromCheckpoint() throws Exception {
+        TransitSnapshotService service = restoreFrom(Instant.now());
+
+        assertEquals(1, service.getStatus().get("stopRouteCount"));
+        assertEquals(Set.of("2"), service.getRouteIdsForStop("2167", stopId -> Set.of("2")));
+    }
+
+    @Test
+    void doesNotCacheFailedLoads() throws Exception {
+        TransitSnapshotService service = restoreFrom(Instant.now());
+
+        assertNull(service.getRouteIdsForStop("70061", stopId -> null));
+        assertEquals(Set.of("Red"), service.getRouteIdsForStop("70061", stopId -> Set.of("Red")));
+    }
+
+    @Test
+    void liveDataIsFreshUntilRefreshesStopLanding() throws Exception {
+        TransitSnapshotService fresh = new TransitSnapshotService(upstream(), null, event -> { }, false, 10, 60);
+        fresh.refreshVehicles();
+        assertFalse(fresh.isStale());
+        assertEquals("live", fresh.getStatus().get("source"));
+
+        TransitSnapshotService lagging = new TransitSnapshotService(upstream(), null, event -> { }, false, 10, 0);
+        lagging.refreshVehicles();
+        Thread.sleep(5);
+        assertTrue(lagging.isStale());
+        assertEquals(1, lagging.getVehicles().size());
+    }
+
+    @Test
+    void stopsServingLiveVehiclesOlderThanMaxAge() throws Exception {
+        TransitSnapshotService service = new TransitSnapshotService(upstream(), null, event -> { }, false, 0, 0);
+        service.refreshVehicles();
+        Thread.sleep(5);
+
+        assertTrue(service.getVehicles().isEmpty());
+        assertTrue(service.isStale());
+    }
+
+    private TransitSnapshotService restoreFrom(Instant capturedAt) throws Exception {
+        SnapshotCheckpointStore store = new SnapshotCheckpointStore(tempDir.resolve("snapshot.bin").toString());
+        store.save(new TransitSnapshot(
+                capturedAt,
+                List.of(new BusLocation("y1234", "1", 42.35, -71.06, 7.5)),
+                Map.of("110", new Stop("110", "Harvard", 42.3726, -71.1182)),
+                Map.of("110", Set.of("1"), "2167", Set.of())
+        ));
+
+        TransitSnapshotService service = new TransitSnapshotService(null, store, event -> { }, true, 10, 60);
+        service.restoreFromCheckpoint();
+        return service;
+    }
+
+    private static RestTemplate upstream() throws Exception {
+        Object vehicles = new ObjectMapper().readTree(VEHICLES_JSON);
+        return new RestTemplate() {
+            @Override
+            public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+                return responseType.cast(vehicles);
+            }
+        };
+    }
+
+    private <T> T failLoad(String stopId) {
+        throw new AssertionError("unexpected upstream lookup for " + stopId);
+    }
+}
@@ -0,0 +1,113 @@
+package com.smartstop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.Stop;
+import com.smartstop.domain.TransitSnapshot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time to first useful response after startup, with and without a checkpoint, against an upstream
+ * stubbed to answer the vehicle feed after {@value #UPSTREAM_DELAY_MILLIS} ms. The clock starts
+ * before the service is constructed and stops when {@code getVehicles()} first returns data.
+ * Excluded from the default test run; use {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TransitSnapshotStartupBenchmarkTest {
+
+    private static final long UPSTREAM_DELAY_MILLIS = 1_500;
+    private static final int VEHICLES = 1_000;
+    private static final int STOPS = 8_000;
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void checkpointServesFirstResponseBeforeUpstreamAnswers() throws Exception {
+        RestTemplate upstream = delayedUpstream();
+        SnapshotCheckpointStore store = new SnapshotCheckpointStore(tempDir.resolve("snapshot.bin").toString());
+        store.save(checkpoint());
+
+        long coldMillis = millisToFirstVehicles(new TransitSnapshotService(upstream, store, event -> { }, false, 10, 60));
+        assertEquals(1, upstreamCalls.getAndSet(0));
+
+        long warmMillis = millisToFirstVehicles(new TransitSnapshotService(upstream, store, event -> { }, true, 10, 60));
+        assertEquals(0, upstreamCalls.get());
+
+        assertTrue(coldMillis >= UPSTREAM_DELAY_MILLIS, "cold start took " + coldMillis + " ms");
+        assertTrue(warmMillis < UPSTREAM_DELAY_MILLIS / 2, "warm start took " + warmMillis + " ms");
+    }
+
+    private static long millisToFirstVehicles(TransitSnapshotService service) {
+        long startNanos = System.nanoTime();
+        service.restoreFromCheckpoint();
+        List<BusLocation> vehicles = service.getVehicles();
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        assertEquals(VEHICLES, vehicles.size());
+        return elapsedMillis;
+    }
+
+    private RestTemplate delayedUpstream() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode data = response.putArray("data");
+        for (int i = 0; i < VEHICLES; i++) {
+            ObjectNode vehicle = data.addObject();
+            vehicle.put("id", "y" + i);
+            vehicle.putObject("attributes")
+                    .put("latitude", 42.20 + i * 0.0003)
+                    .put("longitude", -71.30 + i * 0.0004)
+                    .put("speed", 8.0);
+            vehicle.putObject("relationships").putObject("route").putObject("data").put("id", "route-" + (i % 150));
+        }
+
+        return new RestTemplate() {
+            @Override
+            public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+                upstreamCalls.incrementAndGet();
+                try {
+                    Thread.sleep(UPSTREAM_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return responseType.cast((JsonNode) response);
+            }
+        };
+    }
+
+    private static TransitSnapshot checkpoint() {
+        List<BusLocation> vehicles = new ArrayList<>();
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicles.add(new BusLocation("y" + i, "route-" + (i % 150), 42.20 + i * 0.0003, -71.30 + i * 0.0004, 8.0));
+        }
+
+        Map<String, Stop> stops = new HashMap<>();
+        Map<String, Set<String>> routeIdsByStop = new HashMap<>();
+        for (int i = 0; i < STOPS; i++) {
+            String stopId = Integer.toString(i);
+            stops.put(stopId, new Stop(stopId, "Stop " + i, 42.20 + i * 0.00004, -71.30 + i * 0.00006));
+            routeIdsByStop.put(stopId, Set.of("route-" + (i % 150), "route-" + ((i + 1) % 150)));
+        }
+        return new TransitSnapshot(Instant.now(), vehicles, stops, routeIdsByStop);
+    }
+}
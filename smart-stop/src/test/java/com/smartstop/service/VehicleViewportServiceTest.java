@@ -0,0 +1,163 @@
+package com.smartstop.service;
+
+import com.smartstop.domain.BusLocation;
+import com.smartstop.domain.VehicleCluster;
+import com.smartstop.dto.VehicleViewportResponse;
+import com.smartstop.event.VehicleSnapshotUpdatedEvent;
+import com.smartstop.service.VehicleViewportService.Viewport;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleViewportServiceTest {
+
+    // At zoom 10 with 4 cells per tile a grid cell is 0.087890625 degrees on each side.
+    private static final int ZOOM = 10;
+
+    private final VehicleViewportService service = new VehicleViewportService(null, 2, 4);
+
+    @Test
+    void viewportContainsPointsInsideBounds() {
+        Viewport viewport = new Viewport(42.30, -71.10, 42.40, -71.00);
+
+        assertTrue(viewport.contains(42.35, -71.05));
+        assertTrue(viewport.contains(42.30, -71.10));
+        assertFalse(viewport.contains(42.41, -71.05));
+        assertFalse(viewport.contains(42.35, -70.99));
+    }
+
+    @Test
+    void viewportNormalisesSwappedLatitudes() {
+        Viewport viewport = new Viewport(42.40, -71.10, 42.30, -71.00);
+
+        assertTrue(viewport.contains(42.35, -71.05));
+    }
+
+    @Test
+    void viewportCrossingAntimeridianWrapsLongitude() {
+        Viewport viewport = new Viewport(-20, 179, -10, -179);
+
+        assertTrue(viewport.contains(-15, 179.5));
+        assertTrue(viewport.contains(-15, -179.5));
+        assertFalse(viewport.contains(-15, 0));
+        assertFalse(viewport.contains(-15, 178.5));
+    }
+
+    @Test
+    void returnsVehiclesAtOrBelowThreshold() {
+        List<BusLocation> snapshot = List.of(
+                vehicle("a", 42.32, -71.05),
+                vehicle("b", 42.33, -71.05),
+                vehicle("outside", 43.00, -71.05)
+        );
+
+        VehicleViewportResponse response = service.findInViewport(snapshot, bostonViewport(), ZOOM);
+
+        assertFalse(response.isClustered());
+        assertEquals(2, response.getTotalInViewport());
+        assertEquals(2, response.getVehicles().size());
+        assertTrue(response.getClusters().isEmpty());
+    }
+
+    @Test
+    void clustersAboveThresholdIncludeEdgeCellsWhoseCentroidIsOutside() {
+        List<BusLocation> snapshot = List.of(
+                vehicle("dense1", 42.32, -71.05),
+                vehicle("dense2", 42.32, -71.05),
+                vehicle("dense3", 42.32, -71.05),
+                // Same cell as the two vehicles north of the viewport, so the centroid lands outside it.
+                vehicle("edge", 42.399, -71.05),
+                vehicle("north1", 42.44, -71.05),
+                vehicle("north2", 42.445, -71.05),
+                vehicle("far", 43.50, -71.05)
+        );
+
+        VehicleViewportResponse response = service.findInViewport(snapshot, bostonViewport(), ZOOM);
+
+        assertTrue(response.isClustered());
+        assertEquals(4, response.getTotalInViewport());
+        assertTrue(response.getVehicles().isEmpty());
+        assertEquals(2, response.getClusters().size());
+
+        VehicleCluster edgeCluster = response.getClusters().stream()
+                .filter(cluster -> cluster.getLatitude() > 42.40)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3, edgeCluster.getCount());
+        int clusteredCount = response.getClusters().stream().mapToInt(VehicleCluster::getCount).sum();
+        assertEquals(6, clusteredCount);
+    }
+
+    @Test
+    void clustersAcrossAntimeridian() {
+        List<BusLocation> snapshot = List.of(
+                vehicle("east1", -15, 179.5),
+                vehicle("east2", -15, 179.5),
+                vehicle("west", -15, -179.5),
+                vehicle("far", -15, 0)
+        );
+
+        VehicleViewportResponse response = service.findInViewport(snapshot, new Viewport(-20, 179, -10, -179), ZOOM);
+
+        assertTrue(response.isClustered());
+        assertEquals(3, response.getTotalInViewport());
+        assertEquals(2, response.getClusters().size());
+        assertEquals(3, response.getClusters().stream().mapToInt(VehicleCluster::getCount).sum());
+    }
+
+    @Test
+    void reusesClustersForSameSnapshotAndZoom() {
+        List<BusLocation> snapshot = List.of(
+                vehicle("a", 42.32, -71.05),
+                vehicle("b", 42.32, -71.05),
+                vehicle("c", 42.32, -71.05)
+        );
+        service.onVehicleSnapshotUpdated(new VehicleSnapshotUpdatedEvent(snapshot, Instant.now()));
+
+        VehicleViewportResponse first = service.findInViewport(snapshot, bostonViewport(), ZOOM);
+        VehicleViewportResponse second = service.findInViewport(snapshot, bostonViewport(), ZOOM);
+
+        assertSame(first.getClusters().get(0), second.getClusters().get(0));
+    }
+
+    @Test
+    void olderSnapshotNeverReplacesCachedClusters() {
+        Instant now = Instant.now();
+        List<BusLocation> older = List.of(
+                vehicle("a", 42.32, -71.05),
+                vehicle("b", 42.32, -71.05),
+                vehicle("c", 42.32, -71.05)
+        );
+        List<BusLocation> current = List.of(
+                vehicle("a", 42.33, -71.05),
+                vehicle("b", 42.33, -71.05),
+                vehicle("c", 42.33, -71.05)
+        );
+        service.onVehicleSnapshotUpdated(new VehicleSnapshotUpdatedEvent(current, now));
+        service.onVehicleSnapshotUpdated(new VehicleSnapshotUpdatedEvent(older, now.minus(Duration.ofSeconds(15))));
+        VehicleViewportResponse cached = service.findInViewport(current, bostonViewport(), ZOOM);
+
+        // A slow request still holding the older list is answered correctly but not cached.
+        VehicleViewportResponse slow = service.findInViewport(older, bostonViewport(), ZOOM);
+        assertEquals(42.32, slow.getClusters().get(0).getLatitude(), 1e-9);
+        assertNotSame(slow.getClusters().get(0), service.findInViewport(older, bostonViewport(), ZOOM).getClusters().get(0));
+
+        assertSame(cached.getClusters().get(0), service.findInViewport(current, bostonViewport(), ZOOM).getClusters().get(0));
+    }
+
+    private static Viewport bostonViewport() {
+        return new Viewport(42.30, -71.10, 42.40, -71.00);
+    }
+
+    private static BusLocation vehicle(String id, double latitude, double longitude) {
+        return new BusLocation(id, "1", latitude, longitude, 0.0);
+    }
+}